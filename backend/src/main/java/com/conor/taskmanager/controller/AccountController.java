@@ -1,6 +1,5 @@
 package com.conor.taskmanager.controller;
 
-import java.util.Collections;
 import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
@@ -11,6 +10,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.conor.taskmanager.model.LoginResponse;
 import com.conor.taskmanager.model.PasswordChangeRequest;
 import com.conor.taskmanager.model.User;
 import com.conor.taskmanager.security.CustomUserDetails;
@@ -29,8 +29,10 @@ public class AccountController {
     @PostMapping("/change-password")
     public ResponseEntity<Map<String, String>> changePassword(@Valid @RequestBody PasswordChangeRequest request,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        userService.changePassword(userDetails.getId(), request);
-        return ResponseEntity.ok(Collections.singletonMap("message", "Password changed successfully"));
+        LoginResponse session = userService.changePassword(userDetails.getId(), request);
+        // Tokens issued before the change no longer work, so the client swaps in these
+        return ResponseEntity.ok(Map.of("message", "Password changed successfully", "token", session.getJwtToken(),
+                "refreshToken", session.getRefreshToken()));
     }
 
     @GetMapping("/current-user")
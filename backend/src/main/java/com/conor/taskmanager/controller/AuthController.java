@@ -1,16 +1,20 @@
 package com.conor.taskmanager.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.conor.taskmanager.model.Login;
 import com.conor.taskmanager.model.LoginResponse;
+import com.conor.taskmanager.model.RefreshRequest;
 import com.conor.taskmanager.model.RegisterRequest;
 import com.conor.taskmanager.security.CustomUserDetails;
+import com.conor.taskmanager.service.RefreshTokenService;
 import com.conor.taskmanager.service.UserService;
 
 import jakarta.validation.Valid;
@@ -25,6 +29,7 @@ import lombok.RequiredArgsConstructor;
 public class AuthController {
 
     private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
 
     @PostMapping("/register")
     public ResponseEntity<LoginResponse> register(@Valid @RequestBody RegisterRequest request) {
@@ -38,6 +43,25 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    // Renews an expired access token without the password; the refresh token is spent and replaced
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshRequest body) {
+        LoginResponse response = refreshTokenService.refresh(body.getRefreshToken());
+        return ResponseEntity.ok(response);
+    }
+
+    // The access token is revoked too when sent, so it stops working before it expires
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @Valid @RequestBody RefreshRequest body) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        userService.logout(accessToken, body.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/user")
     public String getCurrentUserName(@AuthenticationPrincipal CustomUserDetails userDetails) {
         return userDetails.getUsername();
@@ -0,0 +1,61 @@
+package com.conor.taskmanager.controller;
+
+import java.util.Map;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.conor.taskmanager.security.CustomUserDetails;
+import com.conor.taskmanager.service.CalendarFeedService;
+import com.conor.taskmanager.service.CalendarFeedService.CalendarFeed;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+public class CalendarController {
+
+    static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
+    private final CalendarFeedService calendarFeedService;
+
+    // Creates the feed URL, or replaces it so anyone holding the old one loses access
+    @PostMapping("/token")
+    public ResponseEntity<Map<String, String>> rotateToken(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        String token = calendarFeedService.rotateToken(userDetails.getId());
+        return ResponseEntity.ok(Map.of("token", token, "path", "/api/calendar/" + token + ".ics"));
+    }
+
+    @DeleteMapping("/token")
+    public ResponseEntity<Void> revokeToken(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        calendarFeedService.revokeToken(userDetails.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Public: the token in the path is the credential. Clients revalidate with
+    // If-None-Match or If-Modified-Since and get a 304 until a task changes.
+    @GetMapping("/{token}.ics")
+    public ResponseEntity<byte[]> getFeed(@PathVariable String token, WebRequest request) {
+        CalendarFeed feed = calendarFeedService.getFeed(token);
+        if (request.checkNotModified(feed.eTag(), feed.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .eTag(feed.eTag())
+                .lastModified(feed.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .body(feed.body());
+    }
+}
@@ -1,60 +1,321 @@
 package com.conor.taskmanager.controller;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.conor.taskmanager.exception.PreconditionFailedException;
 import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskBatchRequest;
+import com.conor.taskmanager.model.TaskBatchResult;
+import com.conor.taskmanager.model.TaskChanges;
+import com.conor.taskmanager.model.TaskExportFormat;
+import com.conor.taskmanager.model.TaskFilter;
+import com.conor.taskmanager.model.TaskPage;
+import com.conor.taskmanager.model.TaskPatchRequest;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.model.TaskSearchPage;
+import com.conor.taskmanager.model.TaskSummary;
 import com.conor.taskmanager.security.CustomUserDetails;
+import com.conor.taskmanager.service.TaskArchiveService;
+import com.conor.taskmanager.service.TaskBatchService;
+import com.conor.taskmanager.service.TaskEventHub;
+import com.conor.taskmanager.service.TaskExportService;
 import com.conor.taskmanager.service.TaskService;
+import com.conor.taskmanager.service.TaskSummaryService;
+import com.conor.taskmanager.service.TaskSyncService;
 
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.SerializationFeature;
 
 @RestController
-@RequiredArgsConstructor
 public class TaskController {
 
+    // Listings can also be fetched as Smile or CBOR, which drop the repeated field names
+    // and send dates and numbers as binary
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    // The listing's encodings in the order its mapping produces them
+    private static final List<MediaType> LISTING_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON,
+            MediaType.parseMediaType(APPLICATION_SMILE_VALUE), MediaType.APPLICATION_CBOR);
+
     private final TaskService taskService;
+    private final TaskBatchService taskBatchService;
+    private final TaskSummaryService taskSummaryService;
+    private final TaskSyncService taskSyncService;
+    private final TaskEventHub taskEventHub;
+    private final TaskExportService taskExportService;
+    private final TaskArchiveService taskArchiveService;
+    // Built once: ObjectWriters are immutable and cache their serializers
+    private final ObjectWriter taskStreamWriter;
+
+    // Lets browsers keep the listing but revalidate it with If-None-Match on every poll
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    public TaskController(TaskService taskService, TaskBatchService taskBatchService,
+            TaskSummaryService taskSummaryService, TaskSyncService taskSyncService, TaskEventHub taskEventHub,
+            TaskExportService taskExportService, TaskArchiveService taskArchiveService, ObjectMapper objectMapper) {
+        this.taskService = taskService;
+        this.taskBatchService = taskBatchService;
+        this.taskSummaryService = taskSummaryService;
+        this.taskSyncService = taskSyncService;
+        this.taskEventHub = taskEventHub;
+        this.taskExportService = taskExportService;
+        this.taskArchiveService = taskArchiveService;
+        // Let the servlet buffer decide when to flush rather than flushing per task
+        this.taskStreamWriter = objectMapper.writerFor(TaskResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @GetMapping(value = "/api/tasks", produces = { MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE })
+    public ResponseEntity<List<TaskResponse>> getTasks(TaskFilter filter, @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, WebRequest request) {
+        // Overdue listings change with the clock, not just with writes, so they can't be versioned
+        if (filter.overdueOnly()) {
+            return ResponseEntity.ok(taskService.getTasksForUser(userDetails.getId(), filter));
+        }
+
+        // JSON, Smile and CBOR are different bytes, so each gets its own strong tag, and the
+        // body is written in the encoding the tag names
+        MediaType mediaType = listingMediaType(accept);
+        // The current version decides the 304; a body carries the version it was read at,
+        // which can be older when a lagging replica serves it
+        if (request.checkNotModified(listingTag(taskService.getTaskListETag(userDetails.getId()), mediaType))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE)
+                    .varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        TaskService.TaskListing listing = taskService.getTaskListing(userDetails.getId(), filter);
+        return ResponseEntity.ok().contentType(mediaType).eTag(listingTag(listing.eTag(), mediaType))
+                .cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).body(listing.tasks());
+    }
+
+    // Streams the listing as a JSON array, writing each task as its row arrives,
+    // so memory per request stays flat however many tasks the user has
+    @GetMapping(value = "/api/tasks", params = { "stream=true", "!limit" }, produces = "application/json")
+    public ResponseEntity<StreamingResponseBody> streamTasks(TaskFilter filter,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        taskService.validateFilter(filter);
+
+        Long userId = userDetails.getId();
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter tasks = taskStreamWriter.writeValuesAsArray(out)) {
+                taskService.streamTasksForUser(userId, filter, tasks::write);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Opt-in keyset pagination: only used when the client asks for a page size
+    @GetMapping(value = "/api/tasks", params = "limit", produces = { MediaType.APPLICATION_JSON_VALUE,
+            APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public ResponseEntity<TaskPage> getTaskPage(@RequestParam int limit, @RequestParam(required = false) String cursor,
+            TaskFilter filter, @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskPage page = taskService.getTaskPage(userDetails.getId(), filter, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    // Full export for downloads and backups, streamed from a database cursor.
+    // after=<last id received> resumes an interrupted export.
+    @GetMapping("/api/tasks/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long after,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskExportFormat exportFormat = TaskExportFormat.parse(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        Long userId = userDetails.getId();
+        StreamingResponseBody body = out -> {
+            if (!gzip) {
+                taskExportService.export(userId, exportFormat, after, out);
+                return;
+            }
+            try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192)) {
+                taskExportService.export(userId, exportFormat, after, compressed);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("tasks." + exportFormat.fileExtension()).build().toString())
+                .cacheControl(CacheControl.noStore())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // Delta sync: tasks changed and deleted since the token from the previous call
+    @GetMapping(value = "/api/tasks/changes", produces = "application/json")
+    public ResponseEntity<TaskChanges> getTaskChanges(@RequestParam(required = false) String since,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskChanges changes = taskSyncService.getChanges(userDetails.getId(), since);
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(changes);
+    }
+
+    // Live feed of committed changes. Clients that drop or are dropped catch up through /changes.
+    @GetMapping(value = "/api/tasks/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskEvents(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        return taskEventHub.subscribe(userDetails.getId());
+    }
+
+    @GetMapping(value = "/api/tasks/summary", produces = "application/json")
+    public ResponseEntity<TaskSummary> getTaskSummary(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskSummary summary = taskSummaryService.getSummary(userDetails.getId());
+        return ResponseEntity.ok(summary);
+    }
+
+    // Completed tasks moved out of the live list by the archive job, newest first
+    @GetMapping(value = "/api/tasks/archive", produces = "application/json")
+    public ResponseEntity<TaskPage> getArchivedTasks(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit, @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskPage page = taskArchiveService.getArchivedTasks(userDetails.getId(), cursor, limit);
+        return ResponseEntity.ok(page);
+    }
 
-    @GetMapping(value = "/api/tasks", produces = "application/json")
-    public ResponseEntity<List<Task>> getTasks(@AuthenticationPrincipal CustomUserDetails userDetails) {
-        List<Task> tasks = taskService.getTasksForUser(userDetails.getId());
-        return ResponseEntity.ok(tasks);
+    @GetMapping(value = "/api/tasks/search", produces = "application/json")
+    public ResponseEntity<TaskSearchPage> searchTasks(@RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int offset, @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskSearchPage page = taskService.searchTasks(userDetails.getId(), q, offset, limit);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping(value = "/api/tasks/{id}", produces = "application/json")
-    public ResponseEntity<Task> getTask(@PathVariable int id, @AuthenticationPrincipal CustomUserDetails userDetails) {
-        Task task = taskService.getTaskById(id, userDetails.getId());
-        return ResponseEntity.ok(task);
+    public ResponseEntity<TaskResponse> getTask(@PathVariable long id, @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskResponse task = taskService.getTaskById(id, userDetails.getId());
+        return ResponseEntity.ok().eTag(versionTag(task)).body(task);
     }
 
     @PostMapping(value = "/api/tasks", consumes = "application/json", produces = "application/json")
-    public ResponseEntity<Task> createTask(@Valid @RequestBody Task task, @AuthenticationPrincipal CustomUserDetails userDetails) {
-        Task savedTask = taskService.createTask(task, userDetails.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedTask);
+    public ResponseEntity<TaskResponse> createTask(@Valid @RequestBody Task task, @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskResponse savedTask = taskService.createTask(task, userDetails.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(versionTag(savedTask)).body(savedTask);
+    }
+
+    // Applies many creates/updates/deletes in one transaction and reports each one's outcome
+    @PostMapping(value = "/api/tasks/batch", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<List<TaskBatchResult>> applyBatch(@Valid @RequestBody TaskBatchRequest batch,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        List<TaskBatchResult> results = taskBatchService.applyBatch(batch.operations(), userDetails.getId());
+        return ResponseEntity.ok(results);
     }
 
     @DeleteMapping(value = "/api/tasks/{id}", produces = "application/json")
-    public ResponseEntity<Map<String, String>> deleteTask(@PathVariable int id, @AuthenticationPrincipal CustomUserDetails userDetails) {
-        taskService.deleteTask(id, userDetails.getId());
+    public ResponseEntity<Map<String, String>> deleteTask(@PathVariable long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        taskService.deleteTask(id, userDetails.getId(), expectedVersion(ifMatch));
         return ResponseEntity.ok(Collections.singletonMap("message", "Task deleted successfully"));
     }
 
+    @PatchMapping(value = "/api/tasks/{id}", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<TaskResponse> patchTask(@PathVariable long id, @Valid @RequestBody TaskPatchRequest patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskResponse task = taskService.patchTask(id, patch, userDetails.getId(), expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(versionTag(task)).body(task);
+    }
+
     @PutMapping("/api/tasks/{id}")
-    public ResponseEntity<Task> updateTask(@PathVariable int id, @Valid @RequestBody Task updatedTask, @AuthenticationPrincipal CustomUserDetails userDetails) {
-        Task task = taskService.updateTask(id, updatedTask, userDetails.getId());
-        return ResponseEntity.ok(task);
+    public ResponseEntity<TaskResponse> updateTask(@PathVariable long id, @Valid @RequestBody Task updatedTask,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        TaskResponse task = taskService.updateTask(id, updatedTask, userDetails.getId(), expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(versionTag(task)).body(task);
+    }
+
+    // A single task's ETag is its row version
+    private static String versionTag(TaskResponse task) {
+        return String.valueOf(task.version());
+    }
+
+    // The first encoding the most specific matching Accept range rates highest, as content
+    // negotiation would pick it. The mapping only matched if Accept allows one of them.
+    private static MediaType listingMediaType(String accept) {
+        List<MediaType> acceptable = new ArrayList<>(accept == null || accept.isBlank()
+                ? List.of(MediaType.ALL) : MediaType.parseMediaTypes(accept));
+        MimeTypeUtils.sortBySpecificity(acceptable);
+
+        MediaType best = LISTING_MEDIA_TYPES.get(0);
+        double bestQuality = 0;
+        for (MediaType candidate : LISTING_MEDIA_TYPES) {
+            double quality = acceptable.stream()
+                    .filter(range -> range.includes(candidate))
+                    .findFirst()
+                    .map(MediaType::getQualityValue)
+                    .orElse(0.0);
+            if (quality > bestQuality) {
+                best = candidate;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static String listingTag(String versionTag, MediaType mediaType) {
+        String encoding = mediaType.getSubtype().equals("x-jackson-smile") ? "smile" : mediaType.getSubtype();
+        return versionTag + "-" + encoding;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" means the client refuses it
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // No If-Match (or "*") means an unconditional write. Anything other than a strong
+    // tag holding a version can never match, so it fails the precondition outright.
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through to the precondition failure
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version of the task");
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.conor.taskmanager.datasource;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Clients whose data changed recently. {@link ReplicaRoutingDataSource} keeps
+ * their reads on the primary until every replica still in use must have caught up.
+ * A replica is only used while its lag is under {@code tasks.datasource.max-replica-lag-ms},
+ * as measured at most one check interval ago, so the window is the sum of the two.
+ * <p>
+ * The mark travels with the client, not with an instance: a committed write
+ * sets a cookie that expires after the window, so the client's next requests
+ * stay on the primary whichever instance serves them. The browser times the
+ * cookie out, so no server clock is involved. Later reads in the same request
+ * stick too. Writes made outside a request, by scheduled jobs, mark no one.
+ */
+@Component
+public class RecentWriters {
+
+    static final String COOKIE_NAME = "read-primary";
+    private static final String WROTE_ATTRIBUTE = RecentWriters.class.getName() + ".wrote";
+
+    private final Duration window;
+
+    @Autowired
+    public RecentWriters(@Value("${tasks.datasource.max-replica-lag-ms:2000}") long maxReplicaLagMs,
+            @Value("${tasks.datasource.lag-check-interval-ms:1000}") long lagCheckIntervalMs) {
+        this.window = Duration.ofMillis(maxReplicaLagMs + lagCheckIntervalMs);
+    }
+
+    // Called once the write has committed
+    public void recordWrite() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getAttribute(WROTE_ATTRIBUTE) != null) {
+            return;
+        }
+        request.setAttribute(WROTE_ATTRIBUTE, Boolean.TRUE);
+
+        // A streamed response is already on its way; its client reads the primary for this request only
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        // Cookies only have whole seconds, so round up rather than end early
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, "1")
+                .path("/api")
+                .maxAge(Duration.ofSeconds(window.plusMillis(999).toSeconds()))
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    public boolean wroteRecently() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        return request.getAttribute(WROTE_ATTRIBUTE) != null || WebUtils.getCookie(request, COOKIE_NAME) != null;
+    }
+}
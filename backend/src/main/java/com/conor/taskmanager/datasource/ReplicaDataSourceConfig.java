@@ -0,0 +1,66 @@
+package com.conor.taskmanager.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Read replicas, switched on by listing their JDBC URLs in
+ * {@code tasks.datasource.replica-urls}. Without it Boot's own DataSource is used
+ * and everything goes to the primary.
+ * <p>
+ * Replaces Boot's DataSource with a {@link ReplicaRoutingDataSource}. The primary is
+ * still built from the spring.datasource properties, and each replica pool copies
+ * its settings and credentials.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("'${tasks.datasource.replica-urls:}' != ''")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            @Value("${tasks.datasource.replica-urls}") List<String> replicaUrls, RecentWriters recentWriters) {
+        List<HikariDataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (String url : replicaUrls) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(url.trim());
+            config.setPoolName("replica-" + replicas.size());
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, recentWriters);
+    }
+
+    // What JPA, Flyway and the JdbcClients get
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource,
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            @Value("${tasks.datasource.max-replica-lag-ms:2000}") long maxReplicaLagMs) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaRoutingDataSource, maxReplicaLagMs);
+    }
+}
@@ -0,0 +1,105 @@
+package com.conor.taskmanager.datasource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Measures replica lag with a heartbeat: each check has the primary stamp the
+ * replica_heartbeat row with its own clock and reads the row back from every
+ * replica. A replica whose copy is older than
+ * {@code tasks.datasource.max-replica-lag-ms}, measured against the primary's
+ * clock, or that can't be read, gets no reads until a later check finds it
+ * caught up.
+ * <p>
+ * Every instance runs the check against the same row, so both ends of the lag
+ * come from the primary; the instances' own clocks can disagree without
+ * showing up as lag.
+ * <p>
+ * Replicas are read before the new beat is written, so a replica that is fully
+ * caught up shows up to one check interval of lag. The allowed lag has to be
+ * larger than the interval.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcClient primary;
+    private final List<JdbcClient> replicas;
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final Duration maxLag;
+    // Result of the previous check, so only changes are logged. Only touched by the scheduler thread.
+    private final boolean[] wasHealthy;
+
+    public ReplicaLagMonitor(DataSource primary, ReplicaRoutingDataSource routingDataSource, long maxLagMs) {
+        this.primary = JdbcClient.create(primary);
+        this.replicas = routingDataSource.getReplicas().stream().map(JdbcClient::create).toList();
+        this.routingDataSource = routingDataSource;
+        this.maxLag = Duration.ofMillis(maxLagMs);
+        this.wasHealthy = new boolean[replicas.size()];
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.datasource.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        LocalDateTime now = primaryNow();
+
+        List<Integer> healthy = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Duration lag = measureLag(i, now);
+            boolean isHealthy = lag != null && lag.compareTo(maxLag) <= 0;
+            if (isHealthy) {
+                healthy.add(i);
+            }
+            if (isHealthy != wasHealthy[i]) {
+                logger.info("Replica {} is {} (lag {})", i, isHealthy ? "back in use" : "out of use", lag);
+                wasHealthy[i] = isHealthy;
+            }
+        }
+        routingDataSource.setHealthyReplicas(healthy);
+
+        try {
+            primary.sql("UPDATE replica_heartbeat SET beat_at = CURRENT_TIMESTAMP(6) WHERE id = 1")
+                    .update();
+        } catch (DataAccessException e) {
+            logger.warn("Failed to write the replica heartbeat", e);
+        }
+    }
+
+    // Null when the primary can't be reached, in which case no lag can be measured
+    private LocalDateTime primaryNow() {
+        try {
+            return primary.sql("SELECT CURRENT_TIMESTAMP(6)")
+                    .query(LocalDateTime.class)
+                    .single();
+        } catch (DataAccessException e) {
+            logger.warn("Failed to read the time from the primary", e);
+            return null;
+        }
+    }
+
+    // Null when the replica can't be read or has no heartbeat yet
+    private Duration measureLag(int replica, LocalDateTime now) {
+        if (now == null) {
+            return null;
+        }
+        try {
+            return replicas.get(replica).sql("SELECT beat_at FROM replica_heartbeat WHERE id = 1")
+                    .query(LocalDateTime.class)
+                    .optional()
+                    .map(beatAt -> Duration.between(beatAt, now))
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            logger.debug("Failed to read the heartbeat from replica {}", replica, e);
+            return null;
+        }
+    }
+}
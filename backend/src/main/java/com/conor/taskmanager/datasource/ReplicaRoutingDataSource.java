@@ -0,0 +1,108 @@
+package com.conor.taskmanager.datasource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ * <p>
+ * A read still goes to the primary when no replica is within the allowed lag
+ * (see {@link ReplicaLagMonitor}) and when the client wrote recently (see
+ * {@link RecentWriters}). Anonymous reads such as calendar feeds and scheduled
+ * jobs' reads use replicas like any other.
+ * <p>
+ * The target is chosen when a connection is taken, so this has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ * The transaction manager asks for its connection before the transaction is
+ * marked read-only, and the proxy holds off until the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final List<DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final RecentWriters recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    // Keys of the replicas currently within the allowed lag; none until the first check
+    private volatile List<String> healthyReplicas = List.of();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+            RecentWriters recentWriters) {
+        this.replicas = List.copyOf(replicas);
+        this.replicaKeys = new ArrayList<>(replicas.size());
+        this.recentWriters = recentWriters;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    // Called by ReplicaLagMonitor after each check with the indexes of the usable replicas
+    public void setHealthyReplicas(Collection<Integer> indexes) {
+        healthyReplicas = indexes.stream().map(replicaKeys::get).toList();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return PRIMARY;
+        }
+
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        if (recentWriters.wroteRecently()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(nextReplica.getAndIncrement(), healthy.size()));
+    }
+
+    // Holds the client's reads to the primary once their transaction commits
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.recordWrite();
+            }
+        });
+    }
+
+    // The primary is a bean of its own and is closed by the context
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
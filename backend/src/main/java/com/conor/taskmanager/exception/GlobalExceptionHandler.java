@@ -8,6 +8,7 @@ import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -92,6 +93,22 @@ public class GlobalExceptionHandler {
         return errorResponse(HttpStatus.FORBIDDEN, e.getMessage());
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiErrorResponse> handlePreconditionFailedException(PreconditionFailedException e) {
+        return errorResponse(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+    }
+
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<ApiErrorResponse> handleSyncTokenExpiredException(SyncTokenExpiredException e) {
+        return errorResponse(HttpStatus.GONE, e.getMessage());
+    }
+
+    // Another write committed between our read and our versioned UPDATE
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        return errorResponse(HttpStatus.PRECONDITION_FAILED, "Task was modified by another request");
+    }
+
     @ExceptionHandler(InvalidCredentialsException.class)
     public ResponseEntity<ApiErrorResponse> handleInvalidCredentialsException(InvalidCredentialsException e) {
         return errorResponse(HttpStatus.UNAUTHORIZED, e.getMessage());
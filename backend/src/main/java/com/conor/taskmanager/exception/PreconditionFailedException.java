@@ -0,0 +1,12 @@
+package com.conor.taskmanager.exception;
+
+/**
+ * Exception thrown when an If-Match precondition does not hold because the
+ * resource changed since the client read it.
+ * Returns 412 PRECONDITION FAILED status.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.conor.taskmanager.exception;
+
+/**
+ * Exception thrown when a sync token is older than the tombstone retention,
+ * so deletions since then can no longer be reported.
+ * Returns 410 GONE status.
+ */
+public class SyncTokenExpiredException extends RuntimeException {
+    public SyncTokenExpiredException(String message) {
+        super(message);
+    }
+}
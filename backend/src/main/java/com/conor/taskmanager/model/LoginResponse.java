@@ -11,4 +11,5 @@ public class LoginResponse {
 
     private String userName;
     private String jwtToken;
+    private String refreshToken;
 }
@@ -2,29 +2,46 @@ package com.conor.taskmanager.model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+// Updates only write the columns that actually changed, so small edits like a
+// status change don't rewrite the description
 @Entity
+@DynamicUpdate
 public class Task {
 
-    @ManyToOne
+    // Never part of the wire format: responses carry TaskResponse.userId, and the owner
+    // of a created or updated task always comes from the authenticated user
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Ids come from a pooled sequence table rather than AUTO_INCREMENT, so Hibernate
+    // hands them out in memory and can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Integer id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_id")
+    @SequenceGenerator(name = "task_id", sequenceName = "task_id_seq", allocationSize = 50)
+    private Long id;
 
     @Column(length = 50, nullable = false)
     @NotBlank(message = "Title cannot be empty")
@@ -53,11 +70,19 @@ public class Task {
     @Column(name = "reminder_sent_at")
     private LocalDateTime reminderSentAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Drives GET /api/tasks/changes; set on every insert and update
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
     public Task() {
         this.status = Status.PENDING;
     }
 
-    public Task(Integer id, String title, String description, Status status, Priority priority, LocalDateTime dueDate) {
+    public Task(Long id, String title, String description, Status status, Priority priority, LocalDateTime dueDate) {
         this.id = id;
         this.title = title;
         this.description = description;
@@ -71,13 +96,19 @@ public class Task {
         if (this.createdDate == null) {
             this.createdDate = LocalDateTime.now();
         }
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    void touchUpdatedAt() {
+        this.updatedAt = LocalDateTime.now();
     }
 
     public String getDescription() {
         return description;
     }
 
-    public Integer getId() {
+    public Long getId() {
         return id;
     }
 
@@ -105,6 +136,14 @@ public class Task {
         return reminderSentAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
     public User getUser() {
         return user;
     }
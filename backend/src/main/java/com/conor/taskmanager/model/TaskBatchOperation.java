@@ -0,0 +1,20 @@
+package com.conor.taskmanager.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One entry of a batch request. CREATE takes a task, UPDATE an id and a task,
+ * DELETE an id; the task fields mean the same as on POST and PUT /api/tasks.
+ */
+public record TaskBatchOperation(
+        @NotNull(message = "Operation type is required") Type op,
+        Long id,
+        @Valid Task task) {
+
+    public enum Type {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
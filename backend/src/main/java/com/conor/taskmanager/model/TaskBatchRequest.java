@@ -0,0 +1,19 @@
+package com.conor.taskmanager.model;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Body of POST /api/tasks/batch. Operations are applied in one transaction
+ * and answered with one {@link TaskBatchResult} each, in the same order.
+ */
+public record TaskBatchRequest(
+        @NotEmpty(message = "Batch must contain at least one operation")
+        @Size(max = TaskBatchRequest.MAX_OPERATIONS, message = "Batch can contain at most 500 operations")
+        List<@Valid TaskBatchOperation> operations) {
+
+    public static final int MAX_OPERATIONS = 500;
+}
@@ -0,0 +1,20 @@
+package com.conor.taskmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one batch operation. {@code status} is the HTTP status the matching
+ * single-task call would have returned; {@code task} is set on success and
+ * {@code message} on failure.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskBatchResult(int index, int status, TaskResponse task, String message) {
+
+    public static TaskBatchResult success(int index, int status, TaskResponse task) {
+        return new TaskBatchResult(index, status, task, null);
+    }
+
+    public static TaskBatchResult failure(int index, int status, String message) {
+        return new TaskBatchResult(index, status, null, message);
+    }
+}
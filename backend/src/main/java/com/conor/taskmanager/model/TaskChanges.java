@@ -0,0 +1,11 @@
+package com.conor.taskmanager.model;
+
+import java.util.List;
+
+/**
+ * Tasks created or updated, and ids of tasks deleted, since a sync token.
+ * Clients apply both lists and send {@code nextToken} on their next sync.
+ * A task can be repeated across consecutive syncs, so applying it must be idempotent.
+ */
+public record TaskChanges(List<TaskResponse> changed, List<Long> deleted, String nextToken) {
+}
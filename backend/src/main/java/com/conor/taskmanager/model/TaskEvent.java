@@ -0,0 +1,35 @@
+package com.conor.taskmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A committed change to one of a user's tasks, pushed to that user's live
+ * event streams. {@code task} is the task as written, and is null for deletions.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskEvent(@JsonIgnore Long userId, Type type, Long taskId, TaskResponse task) {
+
+    public static TaskEvent created(TaskResponse task) {
+        return new TaskEvent(task.userId(), Type.CREATED, task.id(), task);
+    }
+
+    public static TaskEvent updated(TaskResponse task) {
+        return new TaskEvent(task.userId(), Type.UPDATED, task.id(), task);
+    }
+
+    public static TaskEvent deleted(Long userId, Long taskId) {
+        return new TaskEvent(userId, Type.DELETED, taskId, null);
+    }
+
+    public static TaskEvent reminderSent(TaskResponse task) {
+        return new TaskEvent(task.userId(), Type.REMINDER_SENT, task.id(), task);
+    }
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        REMINDER_SENT
+    }
+}
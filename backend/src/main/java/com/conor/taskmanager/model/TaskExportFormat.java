@@ -0,0 +1,37 @@
+package com.conor.taskmanager.model;
+
+import java.util.Locale;
+
+import com.conor.taskmanager.exception.ValidationException;
+
+/**
+ * Formats offered by GET /api/tasks/export.
+ */
+public enum TaskExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    TaskExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    public static TaskExportFormat parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Format must be ndjson or csv");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.conor.taskmanager.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * Optional filters and sort order for task listings, bound from query parameters.
+ * Null fields are not applied. The due date window is [dueFrom, dueTo).
+ */
+public record TaskFilter(
+        Task.Status status,
+        Task.Priority priority,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueTo,
+        Boolean overdue,
+        SortOrder sort) {
+
+    public static TaskFilter none() {
+        return new TaskFilter(null, null, null, null, null, null);
+    }
+
+    public boolean overdueOnly() {
+        return Boolean.TRUE.equals(overdue);
+    }
+
+    public enum SortOrder {
+        CREATED_DATE_DESC,
+        DUE_DATE_ASC,
+        DUE_DATE_DESC
+    }
+}
@@ -0,0 +1,10 @@
+package com.conor.taskmanager.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated task listing.
+ * {@code nextCursor} is null when there are no further pages.
+ */
+public record TaskPage(List<TaskResponse> items, String nextCursor) {
+}
@@ -0,0 +1,80 @@
+package com.conor.taskmanager.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Body of PATCH /api/tasks/{id}. Only fields present in the JSON are changed.
+ * A null title, description, status or priority means "leave as is"; dueDate
+ * can be cleared by sending it as null, so its presence is tracked separately.
+ */
+public class TaskPatchRequest {
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Title cannot be empty")
+    @Size(max = 50, message = "Title can only be 50 characters")
+    private String title;
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Description cannot be empty")
+    @Size(max = 5000, message = "Description can only be 5000 characters")
+    private String description;
+
+    private Task.Status status;
+
+    private Task.Priority priority;
+
+    private LocalDateTime dueDate;
+
+    private boolean dueDatePresent;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Task.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Task.Status status) {
+        this.status = status;
+    }
+
+    public Task.Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Task.Priority priority) {
+        this.priority = priority;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    // Called by Jackson for an explicit null too, which is how a due date gets cleared
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+        this.dueDatePresent = true;
+    }
+
+    public boolean hasDueDate() {
+        return dueDatePresent;
+    }
+
+    public boolean hasChanges() {
+        return title != null || description != null || status != null || priority != null || dueDatePresent;
+    }
+}
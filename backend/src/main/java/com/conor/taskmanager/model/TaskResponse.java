@@ -0,0 +1,35 @@
+package com.conor.taskmanager.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a task returned by the task endpoints. List reads map it
+ * straight from the task table without going through the persistence context.
+ * {@code version} is also sent as the task's ETag for If-Match on writes.
+ */
+public record TaskResponse(
+        Long id,
+        Long userId,
+        String title,
+        String description,
+        Task.Status status,
+        Task.Priority priority,
+        LocalDateTime dueDate,
+        LocalDateTime createdDate,
+        LocalDateTime reminderSentAt,
+        Long version) {
+
+    public static TaskResponse from(Task task) {
+        return new TaskResponse(
+                task.getId(),
+                task.getUser().getId(),
+                task.getTitle(),
+                task.getDescription(),
+                task.getStatus(),
+                task.getPriority(),
+                task.getDueDate(),
+                task.getCreatedDate(),
+                task.getReminderSentAt(),
+                task.getVersion());
+    }
+}
@@ -0,0 +1,10 @@
+package com.conor.taskmanager.model;
+
+import java.util.List;
+
+/**
+ * One page of search results, most relevant first.
+ * {@code nextOffset} is null when there are no further matches.
+ */
+public record TaskSearchPage(List<TaskResponse> items, Integer nextOffset) {
+}
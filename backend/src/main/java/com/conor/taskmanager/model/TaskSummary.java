@@ -0,0 +1,15 @@
+package com.conor.taskmanager.model;
+
+import java.util.Map;
+
+/**
+ * Task counts for the dashboard. overdue and dueToday only count tasks that
+ * are not completed; dueToday covers the rest of the current day.
+ */
+public record TaskSummary(
+        long total,
+        Map<Task.Status, Long> byStatus,
+        Map<Task.Priority, Long> byPriority,
+        long overdue,
+        long dueToday) {
+}
@@ -39,6 +39,16 @@ public class User {
 	@JsonIgnore
 	private String ntfyTopic;
 
+	// Secret in the calendar feed URL; null until the user asks for a feed
+	@Column(name = "calendar_token", length = 64, unique = true)
+	@JsonIgnore
+	private String calendarToken;
+
+	// Bumped on password change; JWTs carrying an older version are rejected
+	@Column(name = "token_version", nullable = false)
+	@JsonIgnore
+	private long tokenVersion = 0;
+
 	@JsonIgnore 
 	@OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
 	private List<Task> tasks = new ArrayList<>(); 
@@ -107,6 +117,22 @@ public class User {
 		this.ntfyTopic = ntfyTopic;
 	}
 
+	public String getCalendarToken() {
+		return calendarToken;
+	}
+
+	public void setCalendarToken(String calendarToken) {
+		this.calendarToken = calendarToken;
+	}
+
+	public long getTokenVersion() {
+		return tokenVersion;
+	}
+
+	public void setTokenVersion(long tokenVersion) {
+		this.tokenVersion = tokenVersion;
+	}
+
 	public void addTask(Task task) {
 		tasks.add(task);
 		task.setUser(this);
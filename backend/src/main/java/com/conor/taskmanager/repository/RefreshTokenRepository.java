@@ -0,0 +1,80 @@
+package com.conor.taskmanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Stored refresh tokens, looked up by the SHA-256 hash of the token; the token
+ * itself is never stored.
+ */
+@Repository
+public class RefreshTokenRepository {
+
+	private final JdbcClient jdbcClient;
+
+	public RefreshTokenRepository(JdbcClient jdbcClient) {
+		this.jdbcClient = jdbcClient;
+	}
+
+	public void insert(String tokenHash, Long userId, String familyId, LocalDateTime createdAt,
+			LocalDateTime expiresAt, LocalDateTime familyExpiresAt) {
+		jdbcClient.sql("INSERT INTO refresh_token (token_hash, user_id, family_id, created_at, expires_at, family_expires_at)"
+				+ " VALUES (:tokenHash, :userId, :familyId, :createdAt, :expiresAt, :familyExpiresAt)")
+				.param("tokenHash", tokenHash)
+				.param("userId", userId)
+				.param("familyId", familyId)
+				.param("createdAt", createdAt)
+				.param("expiresAt", expiresAt)
+				.param("familyExpiresAt", familyExpiresAt)
+				.update();
+	}
+
+	// Row-locked until the transaction ends, so two refreshes with the same token are serialized
+	// and the second sees the first one's used_at
+	public Optional<RefreshToken> lockByHash(String tokenHash) {
+		return jdbcClient.sql("SELECT id, user_id, family_id, expires_at, family_expires_at, used_at"
+				+ " FROM refresh_token WHERE token_hash = :tokenHash FOR UPDATE")
+				.param("tokenHash", tokenHash)
+				.query((rs, rowNum) -> new RefreshToken(
+						rs.getLong("id"),
+						rs.getLong("user_id"),
+						rs.getString("family_id"),
+						rs.getObject("expires_at", LocalDateTime.class),
+						rs.getObject("family_expires_at", LocalDateTime.class),
+						rs.getObject("used_at", LocalDateTime.class)))
+				.optional();
+	}
+
+	public void markUsed(long id, LocalDateTime usedAt) {
+		jdbcClient.sql("UPDATE refresh_token SET used_at = :usedAt WHERE id = :id")
+				.param("usedAt", usedAt)
+				.param("id", id)
+				.update();
+	}
+
+	public void deleteFamily(String familyId) {
+		jdbcClient.sql("DELETE FROM refresh_token WHERE family_id = :familyId")
+				.param("familyId", familyId)
+				.update();
+	}
+
+	public void deleteByUserId(Long userId) {
+		jdbcClient.sql("DELETE FROM refresh_token WHERE user_id = :userId")
+				.param("userId", userId)
+				.update();
+	}
+
+	// Range scan of idx_refresh_token_expires_at
+	public int deleteExpired(LocalDateTime now) {
+		return jdbcClient.sql("DELETE FROM refresh_token WHERE expires_at < :now")
+				.param("now", now)
+				.update();
+	}
+
+	public record RefreshToken(long id, Long userId, String familyId, LocalDateTime expiresAt,
+			LocalDateTime familyExpiresAt, LocalDateTime usedAt) {
+	}
+}
@@ -0,0 +1,61 @@
+package com.conor.taskmanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JWT ids revoked before their expiry. revoked_at is set by the database, so
+ * every instance polls against the same clock.
+ */
+@Repository
+public class RevokedTokenRepository {
+
+	private static final RowMapper<RevokedToken> ROW_MAPPER = (rs, rowNum) -> new RevokedToken(
+			rs.getString("jti"),
+			rs.getObject("expires_at", LocalDateTime.class),
+			rs.getObject("revoked_at", LocalDateTime.class));
+
+	private final JdbcClient jdbcClient;
+
+	public RevokedTokenRepository(JdbcClient jdbcClient) {
+		this.jdbcClient = jdbcClient;
+	}
+
+	// Revoking the same token twice is a no-op
+	public void insert(String jti, Long userId, LocalDateTime expiresAt) {
+		jdbcClient.sql("INSERT IGNORE INTO revoked_token (jti, user_id, expires_at) VALUES (:jti, :userId, :expiresAt)")
+				.param("jti", jti)
+				.param("userId", userId)
+				.param("expiresAt", expiresAt)
+				.update();
+	}
+
+	// Everything still relevant, for the first load
+	public List<RevokedToken> findUnexpired(LocalDateTime now) {
+		return jdbcClient.sql("SELECT jti, expires_at, revoked_at FROM revoked_token WHERE expires_at > :now")
+				.param("now", now)
+				.query(ROW_MAPPER)
+				.list();
+	}
+
+	// Range scan of idx_revoked_token_revoked_at
+	public List<RevokedToken> findRevokedSince(LocalDateTime since) {
+		return jdbcClient.sql("SELECT jti, expires_at, revoked_at FROM revoked_token WHERE revoked_at >= :since")
+				.param("since", since)
+				.query(ROW_MAPPER)
+				.list();
+	}
+
+	public int deleteExpired(LocalDateTime now) {
+		return jdbcClient.sql("DELETE FROM revoked_token WHERE expires_at <= :now")
+				.param("now", now)
+				.update();
+	}
+
+	public record RevokedToken(String jti, LocalDateTime expiresAt, LocalDateTime revokedAt) {
+	}
+}
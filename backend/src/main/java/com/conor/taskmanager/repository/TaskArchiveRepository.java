@@ -0,0 +1,64 @@
+package com.conor.taskmanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskResponse;
+
+/**
+ * Moves completed tasks from the task table into task_archive, and reads them back.
+ * Archived rows keep their ids, so an archived task is still the same task to clients.
+ */
+@Repository
+public class TaskArchiveRepository {
+
+	private static final String TASK_COLUMNS = "id, user_id, title, description, status, priority,"
+			+ " due_date, created_date, reminder_sent_at, version";
+
+	private final JdbcClient jdbcClient;
+
+	public TaskArchiveRepository(JdbcClient jdbcClient) {
+		this.jdbcClient = jdbcClient;
+	}
+
+	// The oldest completed tasks last updated before the cutoff, row-locked until the
+	// transaction ends so none can be reopened while they are being moved.
+	// A range scan of idx_task_status_updated_at.
+	public List<TaskResponse> lockArchivable(LocalDateTime cutoff, int limit) {
+		return jdbcClient.sql("SELECT " + TASK_COLUMNS + " FROM task"
+				+ " WHERE status = :completed AND updated_at < :cutoff ORDER BY updated_at LIMIT :limit FOR UPDATE")
+				.param("completed", Task.Status.COMPLETED.name())
+				.param("cutoff", cutoff)
+				.param("limit", limit)
+				.query(TaskQueryRepository.TASK_RESPONSE_MAPPER)
+				.list();
+	}
+
+	// Copies the tasks into the archive and deletes them from the task table
+	public void moveToArchive(Collection<Long> ids, LocalDateTime archivedAt) {
+		jdbcClient.sql("INSERT INTO task_archive (" + TASK_COLUMNS + ", updated_at, archived_at)"
+				+ " SELECT " + TASK_COLUMNS + ", updated_at, :archivedAt FROM task WHERE id IN (:ids)")
+				.param("archivedAt", archivedAt)
+				.param("ids", ids)
+				.update();
+		jdbcClient.sql("DELETE FROM task WHERE id IN (:ids)")
+				.param("ids", ids)
+				.update();
+	}
+
+	// Keyset page of one user's archived tasks, newest id first; beforeId is null for the first page
+	public List<TaskResponse> findPage(Long userId, Long beforeId, int limit) {
+		return jdbcClient.sql("SELECT " + TASK_COLUMNS + " FROM task_archive"
+				+ " WHERE user_id = :userId AND id < :beforeId ORDER BY id DESC LIMIT :limit")
+				.param("userId", userId)
+				.param("beforeId", beforeId == null ? Long.MAX_VALUE : beforeId)
+				.param("limit", limit)
+				.query(TaskQueryRepository.TASK_RESPONSE_MAPPER)
+				.list();
+	}
+}
@@ -0,0 +1,56 @@
+package com.conor.taskmanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import com.conor.taskmanager.model.TaskResponse;
+
+/**
+ * Bulk updates and deletes for the batch endpoint. Each method sends one JDBC
+ * batch (or one statement) for all rows, instead of loading and dirty checking
+ * every task. Every statement is scoped to the owning user. Inserts go through
+ * JPA, which batches them itself now that ids are assigned in memory.
+ */
+@Repository
+public class TaskBatchRepository {
+
+	private static final String UPDATE_TASK = "UPDATE task SET title = :title, description = :description,"
+			+ " status = :status, priority = :priority, due_date = :dueDate, reminder_sent_at = :reminderSentAt,"
+			+ " version = version + 1, updated_at = :updatedAt WHERE id = :id AND user_id = :userId";
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	public TaskBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public void updateAll(Long userId, List<TaskResponse> tasks, LocalDateTime updatedAt) {
+		SqlParameterSource[] rows = tasks.stream()
+				.map(task -> new MapSqlParameterSource()
+						.addValue("id", task.id())
+						.addValue("userId", userId)
+						.addValue("title", task.title())
+						.addValue("description", task.description())
+						.addValue("status", task.status().name())
+						.addValue("priority", task.priority().name())
+						.addValue("dueDate", task.dueDate())
+						.addValue("reminderSentAt", task.reminderSentAt())
+						.addValue("updatedAt", updatedAt))
+				.toArray(SqlParameterSource[]::new);
+
+		jdbcTemplate.batchUpdate(UPDATE_TASK, rows);
+	}
+
+	public int deleteAll(Long userId, Collection<Long> ids) {
+		return jdbcTemplate.update("DELETE FROM task WHERE user_id = :userId AND id IN (:ids)",
+				new MapSqlParameterSource()
+						.addValue("userId", userId)
+						.addValue("ids", ids));
+	}
+}
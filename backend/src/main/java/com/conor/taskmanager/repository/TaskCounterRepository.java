@@ -0,0 +1,114 @@
+package com.conor.taskmanager.repository;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import com.conor.taskmanager.model.Task;
+
+/**
+ * Per-user task counts by status and priority, one row per user in
+ * task_counters. Writers add deltas in the same transaction as the task
+ * change, so a summary is a single primary key read. Columns are named
+ * status_&lt;status&gt; and priority_&lt;priority&gt; after the enum constants.
+ */
+@Repository
+public class TaskCounterRepository {
+
+	private static final List<String> COLUMNS = Stream.concat(
+			Stream.of(Task.Status.values()).map(TaskCounterRepository::column),
+			Stream.of(Task.Priority.values()).map(TaskCounterRepository::column))
+			.toList();
+
+	private static final String ADD_COUNTS = "INSERT INTO task_counters (user_id, " + String.join(", ", COLUMNS) + ")"
+			+ " VALUES (:userId, " + COLUMNS.stream().map(c -> ":" + c).collect(Collectors.joining(", ")) + ")"
+			+ " ON DUPLICATE KEY UPDATE "
+			+ COLUMNS.stream().map(c -> c + " = " + c + " + VALUES(" + c + ")").collect(Collectors.joining(", "));
+
+	// Recounts one user from the task table; users without tasks get a row of zeros
+	private static final String REBUILD_USER = "INSERT INTO task_counters (user_id, " + String.join(", ", COLUMNS) + ")"
+			+ " SELECT u.id, "
+			+ Stream.concat(
+					Stream.of(Task.Status.values()).map(s -> "COALESCE(SUM(CASE WHEN t.status = '" + s.name() + "' THEN 1 ELSE 0 END), 0)"),
+					Stream.of(Task.Priority.values()).map(p -> "COALESCE(SUM(CASE WHEN t.priority = '" + p.name() + "' THEN 1 ELSE 0 END), 0)"))
+					.collect(Collectors.joining(", "))
+			+ " FROM `user` u LEFT JOIN task t ON t.user_id = u.id WHERE u.id = :userId GROUP BY u.id"
+			+ " ON DUPLICATE KEY UPDATE "
+			+ COLUMNS.stream().map(c -> c + " = VALUES(" + c + ")").collect(Collectors.joining(", "));
+
+	private final JdbcClient jdbcClient;
+
+	public TaskCounterRepository(JdbcClient jdbcClient) {
+		this.jdbcClient = jdbcClient;
+	}
+
+	public void addCounts(Long userId, Map<Task.Status, Integer> statusDeltas, Map<Task.Priority, Integer> priorityDeltas) {
+		JdbcClient.StatementSpec statement = jdbcClient.sql(ADD_COUNTS).param("userId", userId);
+		for (Task.Status status : Task.Status.values()) {
+			statement = statement.param(column(status), statusDeltas.getOrDefault(status, 0));
+		}
+		for (Task.Priority priority : Task.Priority.values()) {
+			statement = statement.param(column(priority), priorityDeltas.getOrDefault(priority, 0));
+		}
+		statement.update();
+	}
+
+	public Counts findCounts(Long userId) {
+		return jdbcClient.sql("SELECT " + String.join(", ", COLUMNS) + " FROM task_counters WHERE user_id = :userId")
+				.param("userId", userId)
+				.query((rs, rowNum) -> {
+					Map<Task.Status, Long> byStatus = new EnumMap<>(Task.Status.class);
+					for (Task.Status status : Task.Status.values()) {
+						byStatus.put(status, rs.getLong(column(status)));
+					}
+					Map<Task.Priority, Long> byPriority = new EnumMap<>(Task.Priority.class);
+					for (Task.Priority priority : Task.Priority.values()) {
+						byPriority.put(priority, rs.getLong(column(priority)));
+					}
+					return new Counts(byStatus, byPriority);
+				})
+				.optional()
+				.orElseGet(Counts::empty);
+	}
+
+	public List<Long> findUserIds() {
+		return jdbcClient.sql("SELECT id FROM `user` ORDER BY id")
+				.query(Long.class)
+				.list();
+	}
+
+	public void rebuild(Long userId) {
+		jdbcClient.sql(REBUILD_USER)
+				.param("userId", userId)
+				.update();
+	}
+
+	private static String column(Task.Status status) {
+		return "status_" + status.name().toLowerCase(Locale.ROOT);
+	}
+
+	private static String column(Task.Priority priority) {
+		return "priority_" + priority.name().toLowerCase(Locale.ROOT);
+	}
+
+	public record Counts(Map<Task.Status, Long> byStatus, Map<Task.Priority, Long> byPriority) {
+
+		static Counts empty() {
+			Map<Task.Status, Long> byStatus = new EnumMap<>(Task.Status.class);
+			for (Task.Status status : Task.Status.values()) {
+				byStatus.put(status, 0L);
+			}
+			Map<Task.Priority, Long> byPriority = new EnumMap<>(Task.Priority.class);
+			for (Task.Priority priority : Task.Priority.values()) {
+				byPriority.put(priority, 0L);
+			}
+			return new Counts(byStatus, byPriority);
+		}
+	}
+}
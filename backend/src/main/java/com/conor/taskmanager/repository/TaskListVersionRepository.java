@@ -0,0 +1,55 @@
+package com.conor.taskmanager.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The task_list_version and task_list_changed_at columns of each user row.
+ * They aren't mapped on the User entity, so saving a user never writes older
+ * values back over them.
+ */
+@Repository
+public class TaskListVersionRepository {
+
+	private final JdbcClient jdbcClient;
+
+	public TaskListVersionRepository(JdbcClient jdbcClient) {
+		this.jdbcClient = jdbcClient;
+	}
+
+	// Holds the user row's lock until the transaction ends, so a user's task writes commit one version apart.
+	// changed_at only moves forward, to now; changes within one second share it and the version tells them apart.
+	public void increment(Long userId, LocalDateTime now) {
+		jdbcClient.sql("UPDATE `user` SET task_list_version = task_list_version + 1,"
+				+ " task_list_changed_at = GREATEST(:now, COALESCE(task_list_changed_at, :now))"
+				+ " WHERE id = :userId")
+				.param("now", now)
+				.param("userId", userId)
+				.update();
+	}
+
+	// Primary key read
+	public long findVersion(Long userId) {
+		return jdbcClient.sql("SELECT task_list_version FROM `user` WHERE id = :userId")
+				.param("userId", userId)
+				.query(Long.class)
+				.optional()
+				.orElse(0L);
+	}
+
+	// Primary key read; changedAt is null until the first bump
+	public TaskListVersion find(Long userId) {
+		return jdbcClient.sql("SELECT task_list_version, task_list_changed_at FROM `user` WHERE id = :userId")
+				.param("userId", userId)
+				.query((rs, rowNum) -> new TaskListVersion(
+						rs.getLong("task_list_version"),
+						rs.getObject("task_list_changed_at", LocalDateTime.class)))
+				.optional()
+				.orElse(new TaskListVersion(0, null));
+	}
+
+	public record TaskListVersion(long version, LocalDateTime changedAt) {
+	}
+}
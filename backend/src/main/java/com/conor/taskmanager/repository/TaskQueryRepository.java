@@ -0,0 +1,258 @@
+package com.conor.taskmanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskFilter;
+import com.conor.taskmanager.model.TaskResponse;
+
+/**
+ * Read side of the task table. Rows are mapped directly to immutable
+ * {@link TaskResponse} records, so list endpoints skip entity hydration,
+ * the eager user join and dirty checking.
+ */
+@Repository
+public class TaskQueryRepository {
+
+	// Rows pulled per round trip when streaming; MySQL needs useCursorFetch for this to apply
+	static final int STREAM_FETCH_SIZE = 500;
+
+	private static final String SELECT_TASK = "SELECT id, user_id, title, description, status, priority,"
+			+ " due_date, created_date, reminder_sent_at, version FROM task";
+
+	static final RowMapper<TaskResponse> TASK_RESPONSE_MAPPER = (rs, rowNum) -> new TaskResponse(
+			rs.getLong("id"),
+			rs.getLong("user_id"),
+			rs.getString("title"),
+			rs.getString("description"),
+			Task.Status.valueOf(rs.getString("status")),
+			Task.Priority.valueOf(rs.getString("priority")),
+			rs.getObject("due_date", LocalDateTime.class),
+			rs.getObject("created_date", LocalDateTime.class),
+			rs.getObject("reminder_sent_at", LocalDateTime.class),
+			rs.getLong("version"));
+
+	// Listed rather than "<> COMPLETED" so each status is its own index range
+	private static final List<String> OPEN_STATUSES = Stream.of(Task.Status.values())
+			.filter(status -> status != Task.Status.COMPLETED)
+			.map(Task.Status::name)
+			.toList();
+
+	private final JdbcClient jdbcClient;
+
+	public TaskQueryRepository(JdbcClient jdbcClient) {
+		this.jdbcClient = jdbcClient;
+	}
+
+	public Optional<TaskResponse> findByIdAndUserId(Long id, Long userId) {
+		return jdbcClient.sql(SELECT_TASK + " WHERE id = :id AND user_id = :userId")
+				.param("id", id)
+				.param("userId", userId)
+				.query(TASK_RESPONSE_MAPPER)
+				.optional();
+	}
+
+	// Not scoped to a user: callers check userId themselves to tell 403 from 404
+	public List<TaskResponse> findAllById(Collection<Long> ids) {
+		return jdbcClient.sql(SELECT_TASK + " WHERE id IN (:ids)")
+				.param("ids", ids)
+				.query(TASK_RESPONSE_MAPPER)
+				.list();
+	}
+
+	// Same as findAllById, but row-locks the tasks until the transaction ends
+	public List<TaskResponse> lockAllById(Collection<Long> ids) {
+		return jdbcClient.sql(SELECT_TASK + " WHERE id IN (:ids) FOR UPDATE")
+				.param("ids", ids)
+				.query(TASK_RESPONSE_MAPPER)
+				.list();
+	}
+
+	// Open tasks due before endOfDay, split into those already overdue and those due today.
+	// A range scan of idx_task_user_status_due_date per open status.
+	public DueCounts countOpenDue(Long userId, LocalDateTime now, LocalDateTime startOfDay, LocalDateTime endOfDay) {
+		return jdbcClient.sql("SELECT"
+				+ " COALESCE(SUM(CASE WHEN due_date < :now THEN 1 ELSE 0 END), 0) AS overdue,"
+				+ " COALESCE(SUM(CASE WHEN due_date >= :startOfDay THEN 1 ELSE 0 END), 0) AS due_today"
+				+ " FROM task WHERE user_id = :userId AND status IN (:openStatuses) AND due_date < :endOfDay")
+				.param("userId", userId)
+				.param("now", now)
+				.param("startOfDay", startOfDay)
+				.param("endOfDay", endOfDay)
+				.param("openStatuses", OPEN_STATUSES)
+				.query((rs, rowNum) -> new DueCounts(rs.getLong("overdue"), rs.getLong("due_today")))
+				.single();
+	}
+
+	// Open tasks due from the given time on, soonest first, for the calendar feed.
+	// A range scan of idx_task_user_due_date.
+	public List<TaskResponse> findOpenDueFrom(Long userId, LocalDateTime from, int limit) {
+		return jdbcClient.sql(SELECT_TASK + " WHERE user_id = :userId AND due_date >= :from"
+				+ " AND status IN (:openStatuses) ORDER BY due_date, id LIMIT :limit")
+				.param("userId", userId)
+				.param("from", from)
+				.param("openStatuses", OPEN_STATUSES)
+				.param("limit", limit)
+				.query(TASK_RESPONSE_MAPPER)
+				.list();
+	}
+
+	public List<TaskResponse> findAll(Long userId, TaskFilter filter, LocalDateTime now) {
+		return listing(userId, filter, now)
+				.query(TASK_RESPONSE_MAPPER)
+				.list();
+	}
+
+	// Same rows as findAll, but read lazily in STREAM_FETCH_SIZE batches.
+	// The stream holds a connection open, so callers must close it.
+	public Stream<TaskResponse> streamAll(Long userId, TaskFilter filter, LocalDateTime now) {
+		return listing(userId, filter, now)
+				.withFetchSize(STREAM_FETCH_SIZE)
+				.query(TASK_RESPONSE_MAPPER)
+				.stream();
+	}
+
+	// Every user's tasks, read lazily; used to build the in-memory search index
+	public Stream<TaskResponse> streamEveryTask() {
+		return jdbcClient.sql(SELECT_TASK + " ORDER BY id")
+				.withFetchSize(STREAM_FETCH_SIZE)
+				.query(TASK_RESPONSE_MAPPER)
+				.stream();
+	}
+
+	// One user's tasks with id above afterId, in id order, read lazily. Ordered by id so an
+	// interrupted export can restart after the last row it received; the user_id index
+	// carries the primary key, so this is a range scan with no sort.
+	public Stream<TaskResponse> streamForExport(Long userId, long afterId) {
+		return jdbcClient.sql(SELECT_TASK + " WHERE user_id = :userId AND id > :afterId ORDER BY id")
+				.param("userId", userId)
+				.param("afterId", afterId)
+				.withFetchSize(STREAM_FETCH_SIZE)
+				.query(TASK_RESPONSE_MAPPER)
+				.stream();
+	}
+
+	// MySQL only: booleanQuery is matched against the FULLTEXT index on (title, description),
+	// best relevance first
+	public List<TaskResponse> findByFullText(Long userId, String booleanQuery, int offset, int limit) {
+		return jdbcClient.sql(SELECT_TASK
+				+ " WHERE user_id = :userId AND MATCH(title, description) AGAINST (:query IN BOOLEAN MODE)"
+				+ " ORDER BY MATCH(title, description) AGAINST (:query IN BOOLEAN MODE) DESC, id"
+				+ " LIMIT :limit OFFSET :offset")
+				.param("userId", userId)
+				.param("query", booleanQuery)
+				.param("limit", limit)
+				.param("offset", offset)
+				.query(TASK_RESPONSE_MAPPER)
+				.list();
+	}
+
+	// Range scan of idx_task_user_updated_at
+	public List<TaskResponse> findChangedSince(Long userId, LocalDateTime since) {
+		return jdbcClient.sql(SELECT_TASK + " WHERE user_id = :userId AND updated_at >= :since ORDER BY updated_at, id")
+				.param("userId", userId)
+				.param("since", since)
+				.query(TASK_RESPONSE_MAPPER)
+				.list();
+	}
+
+	// Keyset page over tasks with a due date, ordered by (due_date, id).
+	// afterDueDate/afterId are null for the first page.
+	public List<TaskResponse> findDatedPage(Long userId, TaskFilter filter, LocalDateTime now,
+			LocalDateTime afterDueDate, Long afterId, int limit) {
+		Map<String, Object> params = new HashMap<>();
+		StringBuilder sql = new StringBuilder(SELECT_TASK);
+		appendFilter(sql, params, userId, filter, now);
+		sql.append(" AND due_date IS NOT NULL");
+		if (afterDueDate != null) {
+			sql.append(" AND (due_date > :afterDueDate OR (due_date = :afterDueDate AND id > :afterId))");
+			params.put("afterDueDate", afterDueDate);
+			params.put("afterId", afterId);
+		}
+		sql.append(" ORDER BY due_date, id LIMIT :limit");
+		params.put("limit", limit);
+
+		return jdbcClient.sql(sql.toString())
+				.params(params)
+				.query(TASK_RESPONSE_MAPPER)
+				.list();
+	}
+
+	// Keyset page over tasks without a due date, ordered by id
+	public List<TaskResponse> findUndatedPage(Long userId, TaskFilter filter, LocalDateTime now,
+			Long afterId, int limit) {
+		Map<String, Object> params = new HashMap<>();
+		StringBuilder sql = new StringBuilder(SELECT_TASK);
+		appendFilter(sql, params, userId, filter, now);
+		sql.append(" AND due_date IS NULL AND id > :afterId ORDER BY id LIMIT :limit");
+		params.put("afterId", afterId);
+		params.put("limit", limit);
+
+		return jdbcClient.sql(sql.toString())
+				.params(params)
+				.query(TASK_RESPONSE_MAPPER)
+				.list();
+	}
+
+	private JdbcClient.StatementSpec listing(Long userId, TaskFilter filter, LocalDateTime now) {
+		Map<String, Object> params = new HashMap<>();
+		StringBuilder sql = new StringBuilder(SELECT_TASK);
+		appendFilter(sql, params, userId, filter, now);
+		sql.append(" ORDER BY ").append(orderBy(filter.sort()));
+
+		return jdbcClient.sql(sql.toString()).params(params);
+	}
+
+	private static void appendFilter(StringBuilder sql, Map<String, Object> params, Long userId,
+			TaskFilter filter, LocalDateTime now) {
+		sql.append(" WHERE user_id = :userId");
+		params.put("userId", userId);
+
+		if (filter.status() != null) {
+			sql.append(" AND status = :status");
+			params.put("status", filter.status().name());
+		}
+		if (filter.priority() != null) {
+			sql.append(" AND priority = :priority");
+			params.put("priority", filter.priority().name());
+		}
+		if (filter.dueFrom() != null) {
+			sql.append(" AND due_date >= :dueFrom");
+			params.put("dueFrom", filter.dueFrom());
+		}
+		if (filter.dueTo() != null) {
+			sql.append(" AND due_date < :dueTo");
+			params.put("dueTo", filter.dueTo());
+		}
+		if (filter.overdueOnly()) {
+			sql.append(" AND due_date < :now AND status <> :completed");
+			params.put("now", now);
+			params.put("completed", Task.Status.COMPLETED.name());
+		}
+	}
+
+	private static String orderBy(TaskFilter.SortOrder sortOrder) {
+		if (sortOrder == null) {
+			return "id";
+		}
+
+		return switch (sortOrder) {
+			case CREATED_DATE_DESC -> "created_date DESC, id DESC";
+			case DUE_DATE_ASC -> "due_date IS NULL, due_date, id";
+			case DUE_DATE_DESC -> "due_date IS NULL, due_date DESC, id DESC";
+		};
+	}
+
+	public record DueCounts(long overdue, long dueToday) {
+	}
+}
@@ -2,19 +2,32 @@ package com.conor.taskmanager.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.conor.taskmanager.model.Task;
-import com.conor.taskmanager.model.User;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Integer> {
-
-	List<Task> findByUser(User user);
+public interface TaskRepository extends JpaRepository<Task, Long> {
 
+	// The reminder job reads each task's user outside a transaction, so fetch it up front.
+	// A range scan of idx_task_reminder_lookup: reminder_sent_at IS NULL fixes the first column,
+	// so the due_date range bounds the read to tasks due inside the window.
+	@EntityGraph(attributePaths = "user")
 	List<Task> findByReminderSentAtIsNullAndDueDateBetweenAndStatusNot(
 			LocalDateTime start,
 			LocalDateTime end,
 			Task.Status status);
+
+	Optional<Task> findByIdAndUserId(Long id, Long userId);
+
+	@Modifying
+	@Query("DELETE FROM Task t WHERE t.id = :id AND t.user.id = :userId AND t.version = :version")
+	int deleteByIdAndUserIdAndVersion(@Param("id") Long id, @Param("userId") Long userId,
+			@Param("version") Long version);
 }
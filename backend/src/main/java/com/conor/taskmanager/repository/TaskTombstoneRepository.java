@@ -0,0 +1,50 @@
+package com.conor.taskmanager.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Records of deleted tasks, kept so sync clients can be told about deletions.
+ * Tasks themselves are still hard-deleted, so no task query has to skip them.
+ */
+@Repository
+public class TaskTombstoneRepository {
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	public TaskTombstoneRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public void insertAll(Long userId, Collection<Long> taskIds, LocalDateTime deletedAt) {
+		SqlParameterSource[] rows = taskIds.stream()
+				.map(taskId -> new MapSqlParameterSource()
+						.addValue("taskId", taskId)
+						.addValue("userId", userId)
+						.addValue("deletedAt", deletedAt))
+				.toArray(SqlParameterSource[]::new);
+
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO task_tombstone (task_id, user_id, deleted_at) VALUES (:taskId, :userId, :deletedAt)", rows);
+	}
+
+	public List<Long> findDeletedSince(Long userId, LocalDateTime since) {
+		return jdbcTemplate.queryForList(
+				"SELECT task_id FROM task_tombstone WHERE user_id = :userId AND deleted_at >= :since ORDER BY deleted_at, task_id",
+				new MapSqlParameterSource()
+						.addValue("userId", userId)
+						.addValue("since", since),
+				Long.class);
+	}
+
+	public int deleteOlderThan(LocalDateTime cutoff) {
+		return jdbcTemplate.update("DELETE FROM task_tombstone WHERE deleted_at < :cutoff",
+				new MapSqlParameterSource("cutoff", cutoff));
+	}
+}
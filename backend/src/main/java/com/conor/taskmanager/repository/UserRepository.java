@@ -19,4 +19,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // use entity class name not table name
     @Query("SELECT u FROM User u WHERE u.userName = :identifier OR u.email = :identifier")
     Optional<User> findByUserNameOrEmail(@Param("identifier") String identifier);
+
+    @Query("SELECT u.id FROM User u WHERE u.calendarToken = :token")
+    Optional<Long> findIdByCalendarToken(@Param("token") String token);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.conor.taskmanager.security;
+
+import java.util.Collection;
+
+// Immutable set membership test with no false negatives and a bounded false
+// positive rate. Positions come from one 64-bit hash split into two halves
+// (Kirsch-Mitzenmacher), so a lookup hashes the key once.
+final class BloomFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    private BloomFilter(int bitCount, int hashCount) {
+        this.bits = new long[(bitCount + 63) / 64];
+        this.bitCount = bits.length * 64;
+        this.hashCount = hashCount;
+    }
+
+    static BloomFilter of(Collection<String> keys, double falsePositiveRate) {
+        int expected = Math.max(keys.size(), 64);
+        double ln2 = Math.log(2);
+        int bitCount = (int) Math.ceil(-expected * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * ln2));
+
+        BloomFilter filter = new BloomFilter(bitCount, hashCount);
+        for (String key : keys) {
+            filter.put(key);
+        }
+        return filter;
+    }
+
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    // FNV-1a over the chars, then MurmurHash3's finalizer to spread the bits
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85c53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -17,6 +17,16 @@ public class CustomUserDetails implements UserDetails {
         this.user = user;
     }
 
+    // Principal built from a token's signed claims alone, without reading the user. It has no password.
+    public static CustomUserDetails fromToken(VerifiedToken token) {
+        User user = new User();
+        user.setId(token.userId());
+        user.setUserName(token.userName());
+        user.setUserRole(token.role());
+        user.setTokenVersion(token.tokenVersion());
+        return new CustomUserDetails(user);
+    }
+
     public Long getId() {
         return user.getId();
     }
@@ -1,11 +1,12 @@
 package com.conor.taskmanager.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -13,26 +14,43 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 @Component
-@RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
     private final CustomUserDetailsService userDetailsService;
     private final JwtService jwtService;
+    private final TokenVersionCache tokenVersionCache;
+    private final RevokedTokens revokedTokens;
+    // When true the principal comes from the token's claims and the user is not read per request
+    private final boolean claimsAuthentication;
+
+    public JwtFilter(CustomUserDetailsService userDetailsService, JwtService jwtService,
+            TokenVersionCache tokenVersionCache, RevokedTokens revokedTokens,
+            @Value("${jwt.claims-authentication:true}") boolean claimsAuthentication) {
+        this.userDetailsService = userDetailsService;
+        this.jwtService = jwtService;
+        this.tokenVersionCache = tokenVersionCache;
+        this.revokedTokens = revokedTokens;
+        this.claimsAuthentication = claimsAuthentication;
+    }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, java.io.IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        Long userId = null;
+        VerifiedToken verified = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            userId = jwtService.extractUserId(token);
+            // One parse checks the signature and expiry; repeat requests with the same token hit JwtService's cache
+            try {
+                verified = jwtService.verify(authHeader.substring(7));
+            } catch (JwtException e) {
+                // Left unauthenticated, so protected endpoints answer 401 and the client refreshes
+                verified = null;
+            }
         }
 
-        if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            CustomUserDetails userDetails = userDetailsService.loadUserById(userId);
+        if (verified != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            CustomUserDetails userDetails = authenticate(verified);
 
-            if (jwtService.validateToken(token, userDetails)) {
+            if (userDetails != null) {
                 // Credentials should not be stored for JWT-authenticated requests so set null
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -42,4 +60,22 @@ public class JwtFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Null when the token was revoked or issued before the user's last password change
+    private CustomUserDetails authenticate(VerifiedToken verified) {
+        if (verified.tokenId() != null && revokedTokens.isRevoked(verified.tokenId())) {
+            return null;
+        }
+        if (verified.tokenVersion() != null
+                && !tokenVersionCache.isCurrent(verified.userId(), verified.tokenVersion())) {
+            return null;
+        }
+        // Tokens issued before the claims were added carry no version or role, so they still read the user
+        if (claimsAuthentication && verified.tokenVersion() != null) {
+            return CustomUserDetails.fromToken(verified);
+        }
+
+        CustomUserDetails userDetails = userDetailsService.loadUserById(verified.userId());
+        return verified.userId().equals(userDetails.getId()) ? userDetails : null;
+    }
 }
@@ -1,87 +1,176 @@
 package com.conor.taskmanager.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.crypto.SecretKey;
 
 //JwtService is responsible for handling JWT (JSON Web Token) operations
 // such as token generation, extraction of claims, and token validation.
+//
+// The key and parser are built once. A client sends the same token on every
+// request until it expires, so verified tokens are cached by SHA-256 hash and
+// a repeat request costs a hash and a map lookup instead of a Base64 decode,
+// JSON parse and HMAC check. Tokens that fail verification are never cached.
+// Every authenticated request goes through the cache, so lookups take no lock;
+// only the thread that pushes it over its bound stops to evict.
 
 @Component
 public class JwtService {
     private static final Duration TOKEN_TTL = Duration.ofHours(1);
+    private static final String USER_NAME_CLAIM = "displayName";
+    private static final String ROLE_CLAIM = "role";
+    private static final String TOKEN_VERSION_CLAIM = "tv";
+
+    private final SecretKey signKey;
+    private final JwtParser parser;
+    private final int maxCachedTokens;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<ByteBuffer, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    // The secret is the base64 encoded key for signing the JWT. It should be kept private.
+    @Autowired
+    public JwtService(@Value("${jwt.secret}") String secret,
+            @Value("${jwt.cache.max-entries:10000}") int maxCachedTokens) {
+        this(secret, maxCachedTokens, Clock.systemUTC());
+    }
 
-    // Secret Key for signing the JWT. It should be kept private.
-    @Value("${jwt.secret}")
-    private String secret;
+    public JwtService(String secret, int maxCachedTokens, Clock clock) {
+        // Creates a signing key from the base64 encoded secret.
+        this.signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser()
+                .verifyWith(signKey)
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        this.maxCachedTokens = maxCachedTokens;
+        this.clock = clock;
+    }
 
-    public String generateToken(Long userId, String userName) {
+    // The claims carry everything JwtFilter needs to authenticate a request without reading the user,
+    // and a random jti so a single token can be revoked
+    public String generateToken(Long userId, String userName, String role, long tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("displayName", userName);
-        Instant now = Instant.now();
+        claims.put(USER_NAME_CLAIM, userName);
+        claims.put(ROLE_CLAIM, role);
+        claims.put(TOKEN_VERSION_CLAIM, tokenVersion);
+        Instant now = clock.instant();
 
         return Jwts
                 .builder()
                 .claims().add(claims).and()
+                .id(UUID.randomUUID().toString())
                 .subject(String.valueOf(userId))
-                .issuedAt(java.util.Date.from(now))
-                .expiration(java.util.Date.from(now.plus(TOKEN_TTL)))
-                .signWith(getSignKey(), Jwts.SIG.HS256)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(TOKEN_TTL)))
+                .signWith(signKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    // Creates a signing key from the base64 encoded secret.
-    // returns a Key object for signing the JWT.
-    private SecretKey getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Checks the signature and expiry and returns the claims the app uses.
+    // Throws the parser's JwtException when the token is malformed, tampered with or expired.
+    public VerifiedToken verify(String token) {
+        ByteBuffer hash = hash(token);
+        VerifiedToken cached = lookup(hash);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Number tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        VerifiedToken verified = new VerifiedToken(Long.valueOf(claims.getSubject()),
+                claims.get(USER_NAME_CLAIM, String.class), claims.get(ROLE_CLAIM, String.class),
+                tokenVersion == null ? null : tokenVersion.longValue(),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant(), claims.getId());
+        store(hash, verified);
+        return verified;
     }
 
     public Long extractUserId(String token) {
-        return Long.valueOf(extractClaim(token, Claims::getSubject));
+        return verify(token).userId();
     }
 
     public Instant extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration).toInstant();
+        return verify(token).expiresAt();
     }
 
-    // Extracts a specific claim from the JWT token.
-    // claimResolver A function to extract the claim.
-    // return-> The value of the specified claim.
-    private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        // Extract the specified claim using the provided function
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
+    public Boolean isTokenExpired(String token) {
+        return verify(token).isExpiredAt(clock.instant());
     }
 
-    private Claims extractAllClaims(String token) {
-        // Extract claims after signature verification
-        return Jwts
-                .parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public Boolean validateToken(String token, CustomUserDetails userDetails) {
+        VerifiedToken verified = verify(token);
+        return (verified.userId().equals(userDetails.getId()) && !verified.isExpiredAt(clock.instant()));
     }
 
-    public Boolean isTokenExpired(String token) {
-        return extractExpiration(token).isBefore(Instant.now());
+    // An expired entry is dropped, so the token goes back through the parser and fails there
+    private VerifiedToken lookup(ByteBuffer hash) {
+        VerifiedToken verified = verifiedTokens.get(hash);
+        if (verified != null && verified.isExpiredAt(clock.instant())) {
+            verifiedTokens.remove(hash, verified);
+            return null;
+        }
+        return verified;
     }
 
-    public Boolean validateToken(String token, CustomUserDetails userDetails) {
-        final Long userId = extractUserId(token);
-        return (userId.equals(userDetails.getId()) && !isTokenExpired(token));
+    private void store(ByteBuffer hash, VerifiedToken verified) {
+        if (maxCachedTokens <= 0) {
+            return;
+        }
+        verifiedTokens.put(hash, verified);
+        if (verifiedTokens.size() > maxCachedTokens && evicting.compareAndSet(false, true)) {
+            try {
+                evict();
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    // Expired tokens go first. If that is not enough, a tenth of the entries go, taken in
+    // hash order, which is as good as random: no per-request bookkeeping tracks recency.
+    private void evict() {
+        Instant now = clock.instant();
+        verifiedTokens.values().removeIf(token -> token.isExpiredAt(now));
+        int target = maxCachedTokens - maxCachedTokens / 10;
+        Iterator<ByteBuffer> keys = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    // Keys the cache by digest, so bearer tokens themselves are never held in memory
+    private static ByteBuffer hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
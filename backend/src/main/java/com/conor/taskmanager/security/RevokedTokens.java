@@ -0,0 +1,142 @@
+package com.conor.taskmanager.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.conor.taskmanager.repository.RevokedTokenRepository;
+import com.conor.taskmanager.repository.RevokedTokenRepository.RevokedToken;
+
+/**
+ * Access tokens revoked before their expiry, by jti, so JwtFilter can turn one
+ * away without a query.
+ * <p>
+ * Revocations are stored in revoked_token and mirrored into an immutable
+ * snapshot, a Bloom filter in front of the exact set, that is swapped whole on
+ * every change. A lookup reads one volatile field and, for almost every token,
+ * stops at the filter. Each instance polls for rows revoked elsewhere every
+ * {@code jwt.revocation.refresh-interval-ms}; on the instance that revoked a
+ * token it stops working as soon as the transaction commits. Entries leave
+ * memory and the table once the token would have expired anyway.
+ */
+@Component
+public class RevokedTokens {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // revoked_at is the insert time, but a row only becomes visible at commit, so each
+    // poll re-reads this far back to pick up rows from transactions still open last time
+    private static final Duration COMMIT_GRACE = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Clock clock;
+
+    // Guarded by this; the snapshot is rebuilt from it
+    private final Map<String, Instant> expiries = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.of(Set.of());
+    // Latest revoked_at seen; only touched by the scheduled refresh
+    private LocalDateTime cursor;
+
+    @Autowired
+    public RevokedTokens(RevokedTokenRepository revokedTokenRepository) {
+        this(revokedTokenRepository, Clock.systemUTC());
+    }
+
+    public RevokedTokens(RevokedTokenRepository revokedTokenRepository, Clock clock) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.clock = clock;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return snapshot.contains(tokenId);
+    }
+
+    // Takes effect here once the transaction commits, elsewhere at their next refresh.
+    // Tokens issued before jti was added carry none and cannot be revoked one by one.
+    public void revoke(VerifiedToken token) {
+        if (token.tokenId() == null) {
+            return;
+        }
+        revokedTokenRepository.insert(token.tokenId(), token.userId(), toUtc(token.expiresAt()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(token.tokenId(), token.expiresAt());
+                }
+            });
+        } else {
+            add(token.tokenId(), token.expiresAt());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        Instant now = clock.instant();
+        // Until a first row turns up there is no cursor, and an empty table is read in full
+        List<RevokedToken> rows = cursor == null
+                ? revokedTokenRepository.findUnexpired(toUtc(now))
+                : revokedTokenRepository.findRevokedSince(cursor.minus(COMMIT_GRACE));
+
+        for (RevokedToken row : rows) {
+            if (cursor == null || row.revokedAt().isAfter(cursor)) {
+                cursor = row.revokedAt();
+            }
+        }
+        merge(rows, now);
+    }
+
+    @Scheduled(cron = "${jwt.revocation.purge-cron:0 45 * * * *}")
+    public void purgeExpired() {
+        revokedTokenRepository.deleteExpired(toUtc(clock.instant()));
+    }
+
+    private synchronized void add(String tokenId, Instant expiresAt) {
+        expiries.put(tokenId, expiresAt);
+        publish();
+    }
+
+    private synchronized void merge(List<RevokedToken> rows, Instant now) {
+        boolean changed = expiries.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        for (RevokedToken row : rows) {
+            Instant expiresAt = row.expiresAt().toInstant(ZoneOffset.UTC);
+            if (expiresAt.isAfter(now) && expiries.put(row.jti(), expiresAt) == null) {
+                changed = true;
+            }
+        }
+        if (changed) {
+            publish();
+        }
+    }
+
+    private void publish() {
+        snapshot = Snapshot.of(Set.copyOf(expiries.keySet()));
+    }
+
+    private static LocalDateTime toUtc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private record Snapshot(BloomFilter filter, Set<String> tokenIds) {
+
+        static Snapshot of(Set<String> tokenIds) {
+            return new Snapshot(BloomFilter.of(tokenIds, FALSE_POSITIVE_RATE), tokenIds);
+        }
+
+        // The filter answers no for almost every token; only its false positives reach the set
+        boolean contains(String tokenId) {
+            return filter.mightContain(tokenId) && tokenIds.contains(tokenId);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.conor.taskmanager.security;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.conor.taskmanager.repository.UserRepository;
+
+/**
+ * Each user's current token version, so JwtFilter can turn away tokens issued
+ * before a password change without reading the user on every request.
+ * <p>
+ * A miss reads the version from the database once. Entries are re-read after
+ * {@code jwt.token-version.ttl-seconds}, which bounds how long another instance
+ * keeps accepting old tokens after a password change made elsewhere. On the
+ * instance that made the change they stop working at once.
+ * <p>
+ * Every authenticated request asks, so lookups take no lock. Past
+ * {@code jwt.token-version.max-users} entries, whichever request notices first
+ * trims the map while the others carry on.
+ */
+@Component
+public class TokenVersionCache {
+
+    private final UserRepository userRepository;
+    private final int maxUsers;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    @Autowired
+    public TokenVersionCache(UserRepository userRepository,
+            @Value("${jwt.token-version.max-users:100000}") int maxUsers,
+            @Value("${jwt.token-version.ttl-seconds:60}") long ttlSeconds) {
+        this(userRepository, maxUsers, Duration.ofSeconds(ttlSeconds), System::nanoTime);
+    }
+
+    public TokenVersionCache(UserRepository userRepository, int maxUsers, Duration ttl, LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.maxUsers = maxUsers;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    // False too when the user no longer exists
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        Long current = lookup(userId);
+        if (current == null) {
+            Optional<Long> loaded = userRepository.findTokenVersionById(userId);
+            if (loaded.isEmpty()) {
+                return false;
+            }
+            current = loaded.get();
+            store(userId, current);
+        }
+        return current == tokenVersion;
+    }
+
+    // Takes effect once the transaction that wrote the new version commits
+    public void update(Long userId, long tokenVersion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(userId, tokenVersion);
+                }
+            });
+        } else {
+            store(userId, tokenVersion);
+        }
+    }
+
+    private Long lookup(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpiredAt(clock.getAsLong(), ttlNanos)) {
+            entries.remove(userId, entry);
+            return null;
+        }
+        return entry.version();
+    }
+
+    private void store(Long userId, long version) {
+        // Versions only go up, so a slow read can never put an older one back
+        entries.merge(userId, new Entry(version, clock.getAsLong()),
+                (current, loaded) -> current.version() > loaded.version() ? current : loaded);
+        if (entries.size() > maxUsers && evicting.compareAndSet(false, true)) {
+            try {
+                evict();
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    // Stale entries go first. If that is not enough, a tenth of the entries go, taken in
+    // map order, which is as good as random: no per-request bookkeeping tracks recency.
+    private void evict() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> entry.isExpiredAt(now, ttlNanos));
+        int target = maxUsers - maxUsers / 10;
+        Iterator<Long> userIds = entries.keySet().iterator();
+        while (entries.size() > target && userIds.hasNext()) {
+            userIds.next();
+            userIds.remove();
+        }
+    }
+
+    private record Entry(long version, long loadedAt) {
+
+        boolean isExpiredAt(long now, long ttlNanos) {
+            return now - loadedAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.conor.taskmanager.security;
+
+import java.time.Instant;
+
+// Claims of a JWT whose signature and expiry have been checked, from a single parse.
+// userName, role, tokenVersion and tokenId (the jti) are null in tokens issued before they were added.
+public record VerifiedToken(Long userId, String userName, String role, Long tokenVersion, Instant issuedAt,
+        Instant expiresAt, String tokenId) {
+
+    public boolean isExpiredAt(Instant now) {
+        return now.isAfter(expiresAt);
+    }
+}
@@ -0,0 +1,158 @@
+package com.conor.taskmanager.service;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.conor.taskmanager.exception.UserNotFoundException;
+import com.conor.taskmanager.model.User;
+import com.conor.taskmanager.repository.TaskListVersionRepository.TaskListVersion;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+import com.conor.taskmanager.repository.UserRepository;
+
+/**
+ * Per-user iCalendar feed of open tasks with a due date, served at a URL holding
+ * a secret token so calendar apps can subscribe without logging in.
+ * <p>
+ * Calendar apps poll often and almost always find nothing new, so each user's
+ * rendered feed is kept as bytes. Like {@link TaskCache}, an entry is tagged
+ * with the user's {@link TaskListVersions} version and only served while that
+ * version is current. The window of past due dates moves daily, so the first
+ * request of each day also re-renders.
+ * <p>
+ * The version is stored with the user, so a client polling different instances
+ * gets the same ETag and Last-Modified from each: the tag is built from the
+ * version and the window, and Last-Modified is when the version last changed,
+ * or the start of the day if the window moved since. Several changes within
+ * one second share a Last-Modified, so the ETag is what tells them apart.
+ */
+@Service
+public class CalendarFeedService {
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    private final UserRepository userRepository;
+    private final UserLookupService userLookupService;
+    private final TaskQueryRepository taskQueryRepository;
+    private final TaskListVersions taskListVersions;
+    private final int pastDays;
+    private final int maxEvents;
+    private final int maxCachedFeeds;
+    private final Clock clock;
+
+    // Access-ordered, so the eldest entry is the least recently used feed. Guarded by this.
+    private final LinkedHashMap<Long, CalendarFeed> feeds;
+
+    @Autowired
+    public CalendarFeedService(UserRepository userRepository, UserLookupService userLookupService,
+            TaskQueryRepository taskQueryRepository, TaskListVersions taskListVersions,
+            @Value("${tasks.calendar.past-days:30}") int pastDays,
+            @Value("${tasks.calendar.max-events:1000}") int maxEvents,
+            @Value("${tasks.calendar.max-cached-feeds:10000}") int maxCachedFeeds) {
+        this(userRepository, userLookupService, taskQueryRepository, taskListVersions, pastDays, maxEvents,
+                maxCachedFeeds, Clock.systemDefaultZone());
+    }
+
+    CalendarFeedService(UserRepository userRepository, UserLookupService userLookupService,
+            TaskQueryRepository taskQueryRepository, TaskListVersions taskListVersions, int pastDays,
+            int maxEvents, int maxCachedFeeds, Clock clock) {
+        this.userRepository = userRepository;
+        this.userLookupService = userLookupService;
+        this.taskQueryRepository = taskQueryRepository;
+        this.taskListVersions = taskListVersions;
+        this.pastDays = pastDays;
+        this.maxEvents = maxEvents;
+        this.maxCachedFeeds = maxCachedFeeds;
+        this.clock = clock;
+        this.feeds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CalendarFeed> eldest) {
+                return size() > CalendarFeedService.this.maxCachedFeeds;
+            }
+        };
+    }
+
+    // Issues a new feed token, so the previous feed URL stops working
+    @Transactional
+    public String rotateToken(Long userId) {
+        User user = userLookupService.getUserById(userId);
+        byte[] random = new byte[TOKEN_BYTES];
+        SECURE_RANDOM.nextBytes(random);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        user.setCalendarToken(token);
+        return token;
+    }
+
+    @Transactional
+    public void revokeToken(Long userId) {
+        userLookupService.getUserById(userId).setCalendarToken(null);
+    }
+
+    @Transactional(readOnly = true)
+    public CalendarFeed getFeed(String token) {
+        Long userId = userRepository.findIdByCalendarToken(token)
+                .orElseThrow(() -> new UserNotFoundException("Calendar not found"));
+
+        // Read in this transaction before the tasks, so both come from the same snapshot
+        TaskListVersion listVersion = taskListVersions.current(userId);
+        long version = listVersion.version();
+        LocalDate today = LocalDate.now(clock);
+        LocalDate windowStart = today.minusDays(pastDays);
+        CalendarFeed cached = lookup(userId, version, windowStart);
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] body = IcsCalendarWriter.render(
+                taskQueryRepository.findOpenDueFrom(userId, windowStart.atStartOfDay(), maxEvents), clock.instant());
+        CalendarFeed feed = new CalendarFeed(body, taskListVersions.eTagFor(version) + "-" + windowStart,
+                lastModified(listVersion, today), version, windowStart);
+        store(userId, feed);
+        return feed;
+    }
+
+    private Instant lastModified(TaskListVersion listVersion, LocalDate today) {
+        Instant windowMoved = today.atStartOfDay(clock.getZone()).toInstant();
+        if (listVersion.changedAt() == null) {
+            return windowMoved;
+        }
+        Instant changed = listVersion.changedAt().atZone(clock.getZone()).toInstant();
+        Instant latest = changed.isAfter(windowMoved) ? changed : windowMoved;
+        // An instance whose clock runs ahead can store a time still to come here
+        Instant now = clock.instant();
+        return latest.isAfter(now) ? now : latest;
+    }
+
+    private synchronized CalendarFeed lookup(Long userId, long version, LocalDate windowStart) {
+        CalendarFeed feed = feeds.get(userId);
+        if (feed == null || feed.version() != version || !feed.windowStart().equals(windowStart)) {
+            return null;
+        }
+        return feed;
+    }
+
+    private synchronized void store(Long userId, CalendarFeed feed) {
+        CalendarFeed current = feeds.get(userId);
+        // Never replace a feed rendered at a later version with an older one
+        if (current == null || current.version() <= feed.version()) {
+            feeds.put(userId, feed);
+        }
+    }
+
+    /**
+     * A rendered feed. {@code eTag} changes whenever the content can;
+     * {@code lastModified} never moves back and is never in the future.
+     */
+    public record CalendarFeed(byte[] body, String eTag, Instant lastModified, long version, LocalDate windowStart) {
+    }
+}
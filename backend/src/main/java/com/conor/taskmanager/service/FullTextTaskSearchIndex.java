@@ -0,0 +1,37 @@
+package com.conor.taskmanager.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+
+/**
+ * Search backed by the MySQL FULLTEXT index on (title, description).
+ * The index is maintained by InnoDB, so the write hooks are no-ops.
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.search.index", havingValue = "fulltext", matchIfMissing = true)
+public class FullTextTaskSearchIndex implements TaskSearchIndex {
+
+    private final TaskQueryRepository taskQueryRepository;
+
+    public FullTextTaskSearchIndex(TaskQueryRepository taskQueryRepository) {
+        this.taskQueryRepository = taskQueryRepository;
+    }
+
+    @Override
+    public List<TaskResponse> search(Long userId, List<String> terms, int offset, int limit) {
+        return taskQueryRepository.findByFullText(userId, toBooleanQuery(terms), offset, limit);
+    }
+
+    // Terms only hold letters and digits, so none of them can carry boolean-mode operators
+    static String toBooleanQuery(List<String> terms) {
+        return terms.stream()
+                .map(term -> "+" + term + "*")
+                .collect(Collectors.joining(" "));
+    }
+}
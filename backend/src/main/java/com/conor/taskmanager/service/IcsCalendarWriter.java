@@ -0,0 +1,108 @@
+package com.conor.taskmanager.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskResponse;
+
+/**
+ * Renders tasks as an RFC 5545 calendar, one VEVENT per task at its due date.
+ * Due dates carry no zone, so they are written as floating local times and show
+ * at the same wall-clock time in whichever zone the calendar app is in.
+ */
+final class IcsCalendarWriter {
+
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    // Content lines are folded at 75 octets (RFC 5545 section 3.1)
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private IcsCalendarWriter() {
+    }
+
+    static byte[] render(List<TaskResponse> tasks, Instant renderedAt) {
+        StringBuilder ics = new StringBuilder(512 + tasks.size() * 256);
+        line(ics, "BEGIN:VCALENDAR");
+        line(ics, "VERSION:2.0");
+        line(ics, "PRODID:-//taskmanager//Task due dates//EN");
+        line(ics, "CALSCALE:GREGORIAN");
+        line(ics, "X-WR-CALNAME:Tasks");
+
+        String stamp = UTC_DATE_TIME.format(renderedAt);
+        for (TaskResponse task : tasks) {
+            line(ics, "BEGIN:VEVENT");
+            line(ics, "UID:task-" + task.id() + "@taskmanager");
+            line(ics, "DTSTAMP:" + stamp);
+            line(ics, "DTSTART:" + LOCAL_DATE_TIME.format(task.dueDate()));
+            line(ics, "SEQUENCE:" + task.version());
+            line(ics, "SUMMARY:" + escape(task.title()));
+            if (task.description() != null && !task.description().isBlank()) {
+                line(ics, "DESCRIPTION:" + escape(task.description()));
+            }
+            line(ics, "PRIORITY:" + priority(task.priority()));
+            line(ics, "END:VEVENT");
+        }
+
+        line(ics, "END:VCALENDAR");
+        return ics.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // 1 is highest and 9 lowest; 0 would mean undefined
+    private static int priority(Task.Priority priority) {
+        return switch (priority) {
+            case HIGH -> 1;
+            case MEDIUM -> 5;
+            case LOW -> 9;
+        };
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> escaped.append('\\').append(c);
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> {
+                    // CRLF becomes a single escaped newline
+                }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    // Appends the content line with CRLF, folding it so no physical line passes 75 octets.
+    // Folds fall between code points, never inside a multi-byte UTF-8 sequence.
+    private static void line(StringBuilder ics, String content) {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int width = utf8Length(codePoint);
+            if (octets + width > MAX_LINE_OCTETS) {
+                ics.append("\r\n ");
+                // The leading space counts towards the continuation line
+                octets = 1;
+            }
+            ics.appendCodePoint(codePoint);
+            octets += width;
+            i += Character.charCount(codePoint);
+        }
+        ics.append("\r\n");
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+}
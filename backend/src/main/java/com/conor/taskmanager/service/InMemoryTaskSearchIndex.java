@@ -0,0 +1,203 @@
+package com.conor.taskmanager.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+
+/**
+ * Inverted index held in memory, for databases without MySQL FULLTEXT
+ * support (H2 in tests and local runs). Built from the task table on
+ * startup and kept current by the write hooks. Results are ranked by
+ * tf-idf, the same model InnoDB uses for its relevance score.
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.search.index", havingValue = "in-memory")
+public class InMemoryTaskSearchIndex implements TaskSearchIndex {
+
+    private final TaskQueryRepository taskQueryRepository;
+
+    // Kept per user so a search only ever walks the caller's own postings
+    private final Map<Long, UserIndex> userIndexes = new HashMap<>();
+    private final Map<Long, Long> taskOwners = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InMemoryTaskSearchIndex(TaskQueryRepository taskQueryRepository) {
+        this.taskQueryRepository = taskQueryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try (Stream<TaskResponse> tasks = taskQueryRepository.streamEveryTask()) {
+            tasks.forEach(this::put);
+        }
+    }
+
+    @Override
+    public List<TaskResponse> search(Long userId, List<String> terms, int offset, int limit) {
+        List<Long> ids;
+        lock.readLock().lock();
+        try {
+            UserIndex userIndex = userIndexes.get(userId);
+            if (userIndex == null) {
+                return List.of();
+            }
+            ids = userIndex.rank(terms).stream().skip(offset).limit(limit).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Rows are read back from the table so results always carry current values
+        Map<Long, TaskResponse> rows = taskQueryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(TaskResponse::id, Function.identity()));
+        List<TaskResponse> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            TaskResponse row = rows.get(id);
+            if (row != null) {
+                results.add(row);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void index(TaskResponse task) {
+        afterCommit(() -> put(task));
+    }
+
+    @Override
+    public void remove(Collection<Long> taskIds) {
+        List<Long> ids = List.copyOf(taskIds);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                ids.forEach(this::removeLocked);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void put(TaskResponse task) {
+        Map<String, Integer> termCounts = new HashMap<>();
+        for (String term : TaskSearchTerms.tokenize(task.title() + " " + task.description())) {
+            termCounts.merge(term, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(task.id());
+            taskOwners.put(task.id(), task.userId());
+            userIndexes.computeIfAbsent(task.userId(), id -> new UserIndex()).add(task.id(), termCounts);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long taskId) {
+        Long userId = taskOwners.remove(taskId);
+        if (userId != null) {
+            userIndexes.get(userId).remove(taskId);
+        }
+    }
+
+    // A rolled-back write never reaches the index
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class UserIndex {
+
+        // term -> task id -> occurrences; sorted so prefix lookups are a range scan
+        private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+
+        void add(Long taskId, Map<String, Integer> termCounts) {
+            documents.put(taskId, termCounts);
+            termCounts.forEach((term, count) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(taskId, count));
+        }
+
+        void remove(Long taskId) {
+            Map<String, Integer> termCounts = documents.remove(taskId);
+            if (termCounts == null) {
+                return;
+            }
+            for (String term : termCounts.keySet()) {
+                Map<Long, Integer> matches = postings.get(term);
+                matches.remove(taskId);
+                if (matches.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        // Ids of tasks matching every term, best score first and ties broken by id
+        List<Long> rank(List<String> terms) {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map<Long, Integer> matches : postings.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                    double idf = Math.log(1 + (double) documents.size() / matches.size());
+                    matches.forEach((taskId, count) -> termScores.merge(taskId, count * idf, Double::sum));
+                }
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> combined = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double termScore = termScores.get(entry.getKey());
+                        if (termScore != null) {
+                            combined.put(entry.getKey(), entry.getValue() + termScore);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            if (scores == null) {
+                return List.of();
+            }
+            return scores.entrySet().stream()
+                    .sorted((a, b) -> {
+                        int byScore = Double.compare(b.getValue(), a.getValue());
+                        return byScore != 0 ? byScore : Long.compare(a.getKey(), b.getKey());
+                    })
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+    }
+}
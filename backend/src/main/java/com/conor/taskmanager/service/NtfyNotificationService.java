@@ -65,7 +65,7 @@ public class NtfyNotificationService {
 		return "default";
 	}
 
-	static String buildTaskClickUrl(String clickBaseUrl, Integer taskId) {
+	static String buildTaskClickUrl(String clickBaseUrl, Long taskId) {
 		if (taskId == null || clickBaseUrl == null) {
 			return null;
 		}
@@ -0,0 +1,156 @@
+package com.conor.taskmanager.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.conor.taskmanager.exception.InvalidCredentialsException;
+import com.conor.taskmanager.model.LoginResponse;
+import com.conor.taskmanager.model.User;
+import com.conor.taskmanager.repository.RefreshTokenRepository;
+import com.conor.taskmanager.repository.RefreshTokenRepository.RefreshToken;
+import com.conor.taskmanager.security.JwtService;
+
+/**
+ * Long-lived refresh tokens, so a session renews its one-hour access token
+ * with a hash lookup instead of a login and its BCrypt check.
+ * <p>
+ * Each refresh token works once. Using it marks it used and hands out a
+ * successor in the same family, whose expiry slides forward by
+ * {@code jwt.refresh.idle-days} but never past {@code jwt.refresh.max-days}
+ * after the login. If a used token comes back after
+ * {@code jwt.refresh.reuse-grace-seconds}, either it was stolen or the client
+ * replayed it, and the whole family is revoked, so whoever holds its current
+ * token has to log in again as well.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserLookupService userLookupService;
+    private final JwtService jwtService;
+    private final Duration idleTtl;
+    private final Duration maxTtl;
+    private final Duration reuseGrace;
+    private final Clock clock;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserLookupService userLookupService,
+            JwtService jwtService,
+            @Value("${jwt.refresh.idle-days:14}") long idleDays,
+            @Value("${jwt.refresh.max-days:30}") long maxDays,
+            @Value("${jwt.refresh.reuse-grace-seconds:10}") long reuseGraceSeconds) {
+        this(refreshTokenRepository, userLookupService, jwtService, Duration.ofDays(idleDays), Duration.ofDays(maxDays),
+                Duration.ofSeconds(reuseGraceSeconds), Clock.systemDefaultZone());
+    }
+
+    RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserLookupService userLookupService,
+            JwtService jwtService, Duration idleTtl, Duration maxTtl, Duration reuseGrace, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userLookupService = userLookupService;
+        this.jwtService = jwtService;
+        this.idleTtl = idleTtl;
+        this.maxTtl = maxTtl;
+        this.reuseGrace = reuseGrace;
+        this.clock = clock;
+    }
+
+    // Starts a new family for a login and returns its first token
+    @Transactional
+    public String issue(Long userId) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return store(userId, UUID.randomUUID().toString(), now, now.plus(maxTtl));
+    }
+
+    // Swaps a refresh token for a new access token and the next refresh token.
+    // Revoking a family on reuse has to commit even though the request is rejected.
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
+    public LoginResponse refresh(String refreshToken) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        RefreshToken token = refreshTokenRepository.lockByHash(hash(refreshToken))
+                .orElseThrow(RefreshTokenService::invalidToken);
+
+        // Two tabs refreshing at once, or a retry after a lost response, present a token again within
+        // moments. That gets its own successor; only a later reuse is treated as a stolen token.
+        boolean repeated = token.usedAt() != null;
+        if (repeated && !token.usedAt().plus(reuseGrace).isAfter(now)) {
+            refreshTokenRepository.deleteFamily(token.familyId());
+            logger.warn("Refresh token reused for user {}; revoked its session", token.userId());
+            throw invalidToken();
+        }
+        if (!token.expiresAt().isAfter(now)) {
+            throw invalidToken();
+        }
+
+        if (!repeated) {
+            refreshTokenRepository.markUsed(token.id(), now);
+        }
+        User user = userLookupService.getUserById(token.userId());
+        String next = store(user.getId(), token.familyId(), now, token.familyExpiresAt());
+        String accessToken = jwtService.generateToken(user.getId(), user.getUserName(), user.getUserRole(),
+                user.getTokenVersion());
+        return new LoginResponse(user.getUserName(), accessToken, next);
+    }
+
+    // Logout: ends the session the token belongs to. Unknown tokens are ignored.
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.lockByHash(hash(refreshToken))
+                .ifPresent(token -> refreshTokenRepository.deleteFamily(token.familyId()));
+    }
+
+    // Ends every session of the user, e.g. after a password change
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Scheduled(cron = "${jwt.refresh.purge-cron:0 15 4 * * *}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now(clock));
+        logger.info("Purged {} expired refresh tokens", purged);
+    }
+
+    private String store(Long userId, String familyId, LocalDateTime now, LocalDateTime familyExpiresAt) {
+        byte[] random = new byte[TOKEN_BYTES];
+        SECURE_RANDOM.nextBytes(random);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+        LocalDateTime slidingExpiry = now.plus(idleTtl);
+        LocalDateTime expiresAt = slidingExpiry.isBefore(familyExpiresAt) ? slidingExpiry : familyExpiresAt;
+        refreshTokenRepository.insert(hash(token), userId, familyId, now, expiresAt, familyExpiresAt);
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static InvalidCredentialsException invalidToken() {
+        return new InvalidCredentialsException("Invalid refresh token");
+    }
+}
@@ -0,0 +1,132 @@
+package com.conor.taskmanager.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.conor.taskmanager.exception.ValidationException;
+import com.conor.taskmanager.model.TaskPage;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskArchiveRepository;
+
+/**
+ * Moves COMPLETED tasks that haven't changed for {@code tasks.archive.completed-age-days}
+ * out of the task table into task_archive, so the table and its indexes only
+ * hold tasks that are still in use.
+ * <p>
+ * The job works in chunks of {@code tasks.archive.batch-size}, each in its own short
+ * transaction, so it never holds many row locks or a long transaction. To the rest
+ * of the app an archived task is deleted from the live list. Its counters are
+ * removed, sync clients get a tombstone, it leaves the search index, and the
+ * owner's list version is bumped. It can still be read through
+ * GET /api/tasks/archive.
+ */
+@Service
+public class TaskArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskArchiveService.class);
+
+    private final TaskArchiveRepository taskArchiveRepository;
+    private final TaskSummaryService taskSummaryService;
+    private final TaskSyncService taskSyncService;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskListVersions taskListVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final int completedAgeDays;
+    private final int batchSize;
+
+    public TaskArchiveService(TaskArchiveRepository taskArchiveRepository, TaskSummaryService taskSummaryService,
+            TaskSyncService taskSyncService, TaskSearchIndex taskSearchIndex, TaskListVersions taskListVersions,
+            PlatformTransactionManager transactionManager,
+            @Value("${tasks.archive.completed-age-days:90}") int completedAgeDays,
+            @Value("${tasks.archive.batch-size:500}") int batchSize) {
+        this.taskArchiveRepository = taskArchiveRepository;
+        this.taskSummaryService = taskSummaryService;
+        this.taskSyncService = taskSyncService;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskListVersions = taskListVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completedAgeDays = completedAgeDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${tasks.archive.cron:0 0 5 * * *}")
+    public void archiveCompletedTasks() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(completedAgeDays);
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            archived += moved;
+        } while (moved == batchSize);
+        logger.info("Archived {} completed tasks last updated before {}", archived, cutoff);
+    }
+
+    // Moves up to batchSize tasks and returns how many were moved
+    int archiveBatch(LocalDateTime cutoff) {
+        List<TaskResponse> tasks = taskArchiveRepository.lockArchivable(cutoff, batchSize);
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(tasks.size());
+        Map<Long, List<TaskResponse>> tasksByUser = new LinkedHashMap<>();
+        for (TaskResponse task : tasks) {
+            ids.add(task.id());
+            tasksByUser.computeIfAbsent(task.userId(), userId -> new ArrayList<>()).add(task);
+        }
+        taskArchiveRepository.moveToArchive(ids, LocalDateTime.now());
+
+        tasksByUser.forEach((userId, userTasks) -> {
+            TaskCounterDelta counts = new TaskCounterDelta();
+            List<Long> userTaskIds = new ArrayList<>(userTasks.size());
+            for (TaskResponse task : userTasks) {
+                counts.remove(task.status(), task.priority());
+                userTaskIds.add(task.id());
+            }
+            taskSummaryService.record(userId, counts);
+            taskSyncService.recordDeleted(userId, userTaskIds);
+            taskSearchIndex.remove(userTaskIds);
+            taskListVersions.bump(userId);
+        });
+        return tasks.size();
+    }
+
+    @Transactional(readOnly = true)
+    public TaskPage getArchivedTasks(Long userId, String cursor, int limit) {
+        if (limit < 1 || limit > TaskService.MAX_PAGE_SIZE) {
+            throw new ValidationException("Limit must be between 1 and " + TaskService.MAX_PAGE_SIZE);
+        }
+        Long beforeId = parseCursor(cursor);
+
+        // One extra row says whether there is another page
+        List<TaskResponse> rows = taskArchiveRepository.findPage(userId, beforeId, limit + 1);
+        if (rows.size() <= limit) {
+            return new TaskPage(rows, null);
+        }
+        List<TaskResponse> items = rows.subList(0, limit);
+        return new TaskPage(List.copyOf(items), String.valueOf(items.get(limit - 1).id()));
+    }
+
+    private static Long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.conor.taskmanager.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskBatchOperation;
+import com.conor.taskmanager.model.TaskBatchResult;
+import com.conor.taskmanager.model.TaskEvent;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskBatchRepository;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+import com.conor.taskmanager.repository.TaskRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class TaskBatchService {
+
+    private final TaskRepository taskRepository;
+    private final TaskQueryRepository taskQueryRepository;
+    private final TaskBatchRepository taskBatchRepository;
+    private final UserLookupService userLookupService;
+    private final TaskListVersions taskListVersions;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskSummaryService taskSummaryService;
+    private final TaskSyncService taskSyncService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Every operation is checked up front against a single read of the targeted rows.
+    // Operations that fail are reported and skipped. The rest are written as one
+    // JDBC batch per operation type, all in the same transaction; inserts are
+    // batched by Hibernate (hibernate.jdbc.batch_size).
+    @Transactional
+    public List<TaskBatchResult> applyBatch(List<TaskBatchOperation> operations, Long userId) {
+        TaskBatchResult[] results = new TaskBatchResult[operations.size()];
+        Map<Long, TaskResponse> targets = loadTargets(operations);
+
+        List<Integer> createIndexes = new ArrayList<>();
+        List<Task> creates = new ArrayList<>();
+        List<Integer> updateIndexes = new ArrayList<>();
+        List<TaskResponse> updates = new ArrayList<>();
+        List<Integer> deleteIndexes = new ArrayList<>();
+        List<Long> deleteIds = new ArrayList<>();
+        Set<Long> seenIds = new HashSet<>();
+        TaskCounterDelta counts = new TaskCounterDelta();
+
+        for (int i = 0; i < operations.size(); i++) {
+            TaskBatchOperation operation = operations.get(i);
+            String problem = describeProblem(operation, seenIds);
+            if (problem != null) {
+                results[i] = TaskBatchResult.failure(i, HttpStatus.BAD_REQUEST.value(), problem);
+                continue;
+            }
+
+            if (operation.op() == TaskBatchOperation.Type.CREATE) {
+                // Same defaults as POST /api/tasks
+                Task task = operation.task();
+                task.setUser(userLookupService.getUserReference(userId));
+                task.setStatus(Task.Status.PENDING);
+                task.setPriority(Task.Priority.LOW);
+                createIndexes.add(i);
+                creates.add(task);
+                continue;
+            }
+
+            TaskResponse existing = targets.get(operation.id());
+            if (existing == null) {
+                results[i] = TaskBatchResult.failure(i, HttpStatus.NOT_FOUND.value(), "Task not found");
+            } else if (!existing.userId().equals(userId)) {
+                results[i] = TaskBatchResult.failure(i, HttpStatus.FORBIDDEN.value(),
+                        "You do not have permission to access this task");
+            } else if (operation.op() == TaskBatchOperation.Type.UPDATE) {
+                TaskResponse updated = applyUpdate(existing, operation.task());
+                updateIndexes.add(i);
+                updates.add(updated);
+                counts.change(existing.status(), existing.priority(), updated.status(), updated.priority());
+            } else {
+                deleteIndexes.add(i);
+                deleteIds.add(existing.id());
+                counts.remove(existing.status(), existing.priority());
+            }
+        }
+
+        if (!creates.isEmpty()) {
+            List<Task> saved = taskRepository.saveAll(creates);
+            for (int j = 0; j < saved.size(); j++) {
+                TaskResponse created = TaskResponse.from(saved.get(j));
+                counts.add(created.status(), created.priority());
+                results[createIndexes.get(j)] = TaskBatchResult.success(
+                        createIndexes.get(j), HttpStatus.CREATED.value(), created);
+                taskSearchIndex.index(created);
+                eventPublisher.publishEvent(TaskEvent.created(created));
+            }
+        }
+        if (!updates.isEmpty()) {
+            taskBatchRepository.updateAll(userId, updates, LocalDateTime.now());
+            for (int j = 0; j < updates.size(); j++) {
+                results[updateIndexes.get(j)] = TaskBatchResult.success(
+                        updateIndexes.get(j), HttpStatus.OK.value(), updates.get(j));
+                taskSearchIndex.index(updates.get(j));
+                eventPublisher.publishEvent(TaskEvent.updated(updates.get(j)));
+            }
+        }
+        if (!deleteIds.isEmpty()) {
+            taskBatchRepository.deleteAll(userId, deleteIds);
+            taskSyncService.recordDeleted(userId, deleteIds);
+            taskSearchIndex.remove(deleteIds);
+            for (int index : deleteIndexes) {
+                results[index] = TaskBatchResult.success(index, HttpStatus.NO_CONTENT.value(), null);
+            }
+            for (Long id : deleteIds) {
+                eventPublisher.publishEvent(TaskEvent.deleted(userId, id));
+            }
+        }
+
+        taskSummaryService.record(userId, counts);
+        if (!creates.isEmpty() || !updates.isEmpty() || !deleteIds.isEmpty()) {
+            taskListVersions.bump(userId);
+        }
+        return List.of(results);
+    }
+
+    private Map<Long, TaskResponse> loadTargets(List<TaskBatchOperation> operations) {
+        Set<Long> ids = new HashSet<>();
+        for (TaskBatchOperation operation : operations) {
+            if (operation.op() != TaskBatchOperation.Type.CREATE && operation.id() != null) {
+                ids.add(operation.id());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, TaskResponse> targets = new HashMap<>();
+        // Locked so the counts moved by each update or delete match the row being replaced
+        for (TaskResponse task : taskQueryRepository.lockAllById(ids)) {
+            targets.put(task.id(), task);
+        }
+        return targets;
+    }
+
+    private static String describeProblem(TaskBatchOperation operation, Set<Long> seenIds) {
+        boolean needsTask = operation.op() != TaskBatchOperation.Type.DELETE;
+        boolean needsId = operation.op() != TaskBatchOperation.Type.CREATE;
+
+        if (needsTask && operation.task() == null) {
+            return "Task is required for " + operation.op();
+        }
+        // A create takes the same defaults as POST /api/tasks, but an update writes both as sent
+        if (operation.op() == TaskBatchOperation.Type.UPDATE
+                && (operation.task().getStatus() == null || operation.task().getPriority() == null)) {
+            return "Status and priority are required for " + operation.op();
+        }
+        if (needsId && operation.id() == null) {
+            return "Task id is required for " + operation.op();
+        }
+        // Ordering between operations on the same task would be ambiguous once grouped into batches
+        if (needsId && !seenIds.add(operation.id())) {
+            return "Task " + operation.id() + " appears more than once in the batch";
+        }
+        return null;
+    }
+
+    private static TaskResponse applyUpdate(TaskResponse existing, Task updatedTask) {
+        LocalDateTime reminderSentAt = TaskService.shouldResetReminder(existing.status(), existing.dueDate(),
+                updatedTask.getStatus(), updatedTask.getDueDate()) ? null : existing.reminderSentAt();
+
+        return new TaskResponse(existing.id(), existing.userId(), updatedTask.getTitle(),
+                updatedTask.getDescription(), updatedTask.getStatus(), updatedTask.getPriority(),
+                updatedTask.getDueDate(), existing.createdDate(), reminderSentAt, existing.version() + 1);
+    }
+}
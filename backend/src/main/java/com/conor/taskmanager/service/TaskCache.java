@@ -0,0 +1,190 @@
+package com.conor.taskmanager.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.conor.taskmanager.model.TaskResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Bounded cache of each user's full task list, evicting least recently used
+ * users past maxUsers and entries older than the TTL.
+ * <p>
+ * Entries are tagged with the user's {@link TaskListVersions} version when the
+ * list was read, and only served to a reader that sees that same version. The
+ * version is stored with the user and every task write (create, update, patch,
+ * delete, batch, archive, reminder sent) bumps it in its own transaction, so a
+ * write made through any instance invalidates exactly that user's entry here.
+ * Callers read the version and load the list in one read-only transaction,
+ * which sees both from the same snapshot, so an entry's tasks always match its
+ * version, even when they came from a lagging replica.
+ * <p>
+ * Registered as a {@link MeterBinder}, so hits, misses, puts, evictions and
+ * size show up under the actuator's cache.* metrics with cache=tasks.
+ */
+@Component
+public class TaskCache implements MeterBinder {
+
+    private final TaskListVersions taskListVersions;
+    private final int maxUsers;
+    private final int maxTasksPerUser;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Access-ordered, so the eldest entry is the least recently used user. Guarded by this.
+    private final LinkedHashMap<Long, Entry> entries;
+
+    @Autowired
+    public TaskCache(TaskListVersions taskListVersions,
+            @Value("${tasks.cache.max-users:10000}") int maxUsers,
+            @Value("${tasks.cache.max-tasks-per-user:1000}") int maxTasksPerUser,
+            @Value("${tasks.cache.ttl-seconds:300}") long ttlSeconds) {
+        this(taskListVersions, maxUsers, maxTasksPerUser, Duration.ofSeconds(ttlSeconds), System::nanoTime);
+    }
+
+    TaskCache(TaskListVersions taskListVersions, int maxUsers, int maxTasksPerUser, Duration ttl, LongSupplier clock) {
+        this.taskListVersions = taskListVersions;
+        this.maxUsers = maxUsers;
+        this.maxTasksPerUser = maxTasksPerUser;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > TaskCache.this.maxUsers) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the cached list, or loads, caches and returns it. The loader runs
+    // outside the lock, so a slow query never blocks other users. Has to be called
+    // in the read-only transaction the loader reads in.
+    public List<TaskResponse> getTasks(Long userId, Supplier<List<TaskResponse>> loader) {
+        long version = taskListVersions.currentVersion(userId);
+        Entry entry = lookup(userId, version);
+        if (entry != null) {
+            hits.increment();
+            return entry.tasks();
+        }
+        misses.increment();
+
+        List<TaskResponse> tasks = List.copyOf(loader.get());
+        // Very large lists are cheaper to stream than to hold
+        if (tasks.size() <= maxTasksPerUser) {
+            store(userId, new Entry(version, clock.getAsLong() + ttlNanos, tasks));
+        }
+        return tasks;
+    }
+
+    // Only answers from an existing entry; a task missing from it may belong to
+    // someone else, which the caller has to tell apart from a missing task
+    public TaskResponse getTask(Long userId, Long taskId) {
+        Entry entry = lookup(userId, taskListVersions.currentVersion(userId));
+        if (entry != null) {
+            TaskResponse task = entry.tasksById().get(taskId);
+            if (task != null) {
+                hits.increment();
+                return task;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    private synchronized Entry lookup(Long userId, long version) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.expiresAt() >= 0) {
+            entries.remove(userId);
+            evictions.increment();
+            return null;
+        }
+        if (entry.version() != version) {
+            // A reader on a lagging replica sees an older version; the entry is still good for others
+            if (entry.version() < version) {
+                entries.remove(userId);
+            }
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void store(Long userId, Entry entry) {
+        Entry current = entries.get(userId);
+        // Never replace a list read at a later version with an older one
+        if (current == null || current.version() <= entry.version()) {
+            entries.put(userId, entry);
+            puts.increment();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CacheMeterBinder<>(this, "tasks", Tags.empty()) {
+            @Override
+            protected Long size() {
+                return (long) TaskCache.this.size();
+            }
+
+            @Override
+            protected long hitCount() {
+                return hits.sum();
+            }
+
+            @Override
+            protected Long missCount() {
+                return misses.sum();
+            }
+
+            @Override
+            protected Long evictionCount() {
+                return evictions.sum();
+            }
+
+            @Override
+            protected long putCount() {
+                return puts.sum();
+            }
+
+            @Override
+            protected void bindImplementationSpecificMetrics(MeterRegistry meterRegistry) {
+            }
+        }.bindTo(registry);
+    }
+
+    private record Entry(long version, long expiresAt, List<TaskResponse> tasks, Map<Long, TaskResponse> tasksById) {
+
+        Entry(long version, long expiresAt, List<TaskResponse> tasks) {
+            this(version, expiresAt, tasks, tasks.stream().collect(Collectors.toMap(TaskResponse::id, task -> task)));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.conor.taskmanager.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.conor.taskmanager.model.Task;
+
+/**
+ * Net change to a user's status and priority counts from one write,
+ * applied to task_counters in a single statement.
+ */
+final class TaskCounterDelta {
+
+    private final Map<Task.Status, Integer> statusChanges = new EnumMap<>(Task.Status.class);
+    private final Map<Task.Priority, Integer> priorityChanges = new EnumMap<>(Task.Priority.class);
+
+    TaskCounterDelta add(Task.Status status, Task.Priority priority) {
+        adjust(status, priority, 1);
+        return this;
+    }
+
+    TaskCounterDelta remove(Task.Status status, Task.Priority priority) {
+        adjust(status, priority, -1);
+        return this;
+    }
+
+    TaskCounterDelta change(Task.Status oldStatus, Task.Priority oldPriority,
+            Task.Status newStatus, Task.Priority newPriority) {
+        return remove(oldStatus, oldPriority).add(newStatus, newPriority);
+    }
+
+    boolean isEmpty() {
+        return statusChanges.isEmpty() && priorityChanges.isEmpty();
+    }
+
+    Map<Task.Status, Integer> statusChanges() {
+        return statusChanges;
+    }
+
+    Map<Task.Priority, Integer> priorityChanges() {
+        return priorityChanges;
+    }
+
+    // Entries that net out to zero are dropped, so an unchanged status costs nothing
+    private void adjust(Task.Status status, Task.Priority priority, int amount) {
+        statusChanges.merge(status, amount, (a, b) -> a + b == 0 ? null : a + b);
+        priorityChanges.merge(priority, amount, (a, b) -> a + b == 0 ? null : a + b);
+    }
+}
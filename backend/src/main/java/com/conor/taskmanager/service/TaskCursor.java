@@ -0,0 +1,45 @@
+package com.conor.taskmanager.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.conor.taskmanager.exception.ValidationException;
+import com.conor.taskmanager.model.TaskResponse;
+
+/**
+ * Position of the last task on a page, ordered by (dueDate, id).
+ * Tasks without a due date sort after all dated tasks, so a null
+ * dueDate means the cursor is inside the undated section.
+ */
+record TaskCursor(LocalDateTime dueDate, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    static TaskCursor of(TaskResponse task) {
+        return new TaskCursor(task.dueDate(), task.id());
+    }
+
+    String encode() {
+        String raw = (dueDate == null ? "" : dueDate.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TaskCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new ValidationException("Invalid cursor");
+            }
+
+            String dueDatePart = raw.substring(0, separatorIndex);
+            LocalDateTime dueDate = dueDatePart.isEmpty() ? null : LocalDateTime.parse(dueDatePart);
+            Long id = Long.valueOf(raw.substring(separatorIndex + 1));
+            return new TaskCursor(dueDate, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.conor.taskmanager.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.conor.taskmanager.model.TaskEvent;
+
+import jakarta.annotation.PreDestroy;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+/**
+ * In-process fan-out of {@link TaskEvent}s to each user's open SSE connections.
+ * <p>
+ * Publishers never write to a socket: an event is offered to every connection's
+ * bounded queue and a sender thread drains it. A connection whose queue fills up
+ * (a stalled client) is closed rather than buffered without limit; on reconnect
+ * the client catches up through GET /api/tasks/changes.
+ */
+@Component
+public class TaskEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventHub.class);
+
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Executor sender;
+    private final ObjectWriter eventWriter;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+
+    @Autowired
+    public TaskEventHub(ObjectMapper objectMapper,
+            @Value("${tasks.events.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${tasks.events.buffer-size:256}") int bufferSize,
+            @Value("${tasks.events.max-connections-per-user:5}") int maxConnectionsPerUser) {
+        // Sends block on slow sockets, which virtual threads make cheap
+        this(Executors.newVirtualThreadPerTaskExecutor(), objectMapper, timeoutMillis, bufferSize,
+                maxConnectionsPerUser);
+    }
+
+    TaskEventHub(Executor sender, ObjectMapper objectMapper, long timeoutMillis, int bufferSize,
+            int maxConnectionsPerUser) {
+        this.sender = sender;
+        this.eventWriter = objectMapper.writerFor(TaskEvent.class);
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(userId, emitter);
+        return emitter;
+    }
+
+    void register(Long userId, SseEmitter emitter) {
+        Subscription subscription = new Subscription(userId, emitter);
+        emitter.onCompletion(() -> unregister(subscription));
+        emitter.onTimeout(() -> unregister(subscription));
+        emitter.onError(error -> unregister(subscription));
+
+        // Added inside the map operation, so a concurrent unregister can't drop the user's
+        // set between the lookup and the add and leave this connection unreachable
+        List<Subscription> evicted = new ArrayList<>();
+        subscriptions.compute(userId, (id, userSubscriptions) -> {
+            Set<Subscription> updated = userSubscriptions == null ? new CopyOnWriteArraySet<>() : userSubscriptions;
+            updated.add(subscription);
+            // Oldest connections give way, so a client leaking connections can't pin memory
+            Iterator<Subscription> oldest = updated.iterator();
+            while (updated.size() - evicted.size() > maxConnectionsPerUser) {
+                evicted.add(oldest.next());
+            }
+            return updated;
+        });
+        // Closed outside the map operation, since closing unregisters
+        evicted.forEach(Subscription::close);
+    }
+
+    // Delivered once the writing transaction commits; the reminder job publishes outside one
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(TaskEvent event) {
+        Set<Subscription> userSubscriptions = subscriptions.get(event.userId());
+        if (userSubscriptions == null) {
+            return;
+        }
+        // Serialized once however many connections the user has open
+        Set<DataWithMediaType> message = SseEmitter.event()
+                .name(event.type().name())
+                .data(eventWriter.writeValueAsString(event))
+                .build();
+        for (Subscription subscription : userSubscriptions) {
+            subscription.offer(message);
+        }
+    }
+
+    // Keeps idle connections alive through proxies and notices clients that went away
+    @Scheduled(fixedDelayString = "${tasks.events.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        for (Set<Subscription> userSubscriptions : subscriptions.values()) {
+            for (Subscription subscription : userSubscriptions) {
+                subscription.offer(heartbeat);
+            }
+        }
+    }
+
+    int connectionCount(Long userId) {
+        Set<Subscription> userSubscriptions = subscriptions.get(userId);
+        return userSubscriptions == null ? 0 : userSubscriptions.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(Subscription::close));
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private void unregister(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    private final class Subscription {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(message)) {
+                logger.info("Closing event stream for user {}: client is not keeping up", userId);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        // At most one drain runs per connection, so events go out in order
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> message;
+                while (!closed.get() && (message = queue.poll()) != null) {
+                    emitter.send(message);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // An event offered after the last poll but before draining was reset
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                queue.clear();
+                unregister(this);
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.conor.taskmanager.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.conor.taskmanager.model.TaskExportFormat;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+/**
+ * Writes a user's tasks as NDJSON or CSV straight from a database cursor, one row
+ * at a time, so an export uses the same memory for ten tasks as for a million.
+ * Rows go out in id order; passing the last id received as {@code afterId}
+ * continues an interrupted export.
+ */
+@Service
+public class TaskExportService {
+
+    static final String CSV_HEADER = "id,title,description,status,priority,dueDate,createdDate,reminderSentAt,version";
+
+    private final TaskQueryRepository taskQueryRepository;
+    private final ObjectWriter lineWriter;
+
+    public TaskExportService(TaskQueryRepository taskQueryRepository, ObjectMapper objectMapper) {
+        this.taskQueryRepository = taskQueryRepository;
+        this.lineWriter = objectMapper.writerFor(TaskResponse.class);
+    }
+
+    @Transactional(readOnly = true)
+    public void export(Long userId, TaskExportFormat format, Long afterId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // A resumed CSV export continues an existing file, so it doesn't repeat the header
+        if (format == TaskExportFormat.CSV && afterId == null) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<TaskResponse> tasks = taskQueryRepository.streamForExport(userId, afterId == null ? 0 : afterId)) {
+            Iterator<TaskResponse> rows = tasks.iterator();
+            while (rows.hasNext()) {
+                TaskResponse task = rows.next();
+                if (format == TaskExportFormat.CSV) {
+                    writeCsvRow(writer, task);
+                } else {
+                    writer.write(lineWriter.writeValueAsString(task));
+                }
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, TaskResponse task) throws IOException {
+        writer.write(String.valueOf(task.id()));
+        writer.write(',');
+        writeCsvText(writer, task.title());
+        writer.write(',');
+        writeCsvText(writer, task.description());
+        writer.write(',');
+        writer.write(task.status().name());
+        writer.write(',');
+        writer.write(task.priority().name());
+        writer.write(',');
+        writeCsvField(writer, task.dueDate());
+        writer.write(',');
+        writeCsvField(writer, task.createdDate());
+        writer.write(',');
+        writeCsvField(writer, task.reminderSentAt());
+        writer.write(',');
+        writeCsvField(writer, task.version());
+    }
+
+    // User-written text. Spreadsheets run a cell starting with one of these as a formula
+    // (CSV injection), so such text gets a leading ' and is quoted to show it is text.
+    private static void writeCsvText(Writer writer, String text) throws IOException {
+        if (text == null || text.isEmpty() || "=+-@\t\r".indexOf(text.charAt(0)) < 0) {
+            writeCsvField(writer, text);
+            return;
+        }
+        writer.write('"');
+        writer.write("'" + text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // RFC 4180: fields holding a comma, quote or line break are quoted, with quotes doubled
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,61 @@
+package com.conor.taskmanager.service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.conor.taskmanager.repository.TaskListVersionRepository;
+import com.conor.taskmanager.repository.TaskListVersionRepository.TaskListVersion;
+
+/**
+ * Per-user version of the task list, used as the ETag for GET /api/tasks
+ * and to invalidate {@link TaskCache} entries.
+ * <p>
+ * The version is stored on the user row and bumped in the same transaction as
+ * the task write, so every instance sees the same version, and it changes
+ * exactly when the write becomes visible. A read-only transaction that reads
+ * the version and then the tasks sees both from one snapshot, even on a
+ * lagging replica, so tasks are never tagged with a version they don't match.
+ */
+@Component
+public class TaskListVersions {
+
+	private final TaskListVersionRepository taskListVersionRepository;
+	private final Clock clock;
+
+	@Autowired
+	public TaskListVersions(TaskListVersionRepository taskListVersionRepository) {
+		this(taskListVersionRepository, Clock.systemDefaultZone());
+	}
+
+	TaskListVersions(TaskListVersionRepository taskListVersionRepository, Clock clock) {
+		this.taskListVersionRepository = taskListVersionRepository;
+		this.clock = clock;
+	}
+
+	public String currentETag(Long userId) {
+		return eTagFor(currentVersion(userId));
+	}
+
+	public String eTagFor(long version) {
+		return "v" + version;
+	}
+
+	public long currentVersion(Long userId) {
+		return taskListVersionRepository.findVersion(userId);
+	}
+
+	// The version with the time it last changed, in one read
+	public TaskListVersion current(Long userId) {
+		return taskListVersionRepository.find(userId);
+	}
+
+	// Joins the writer's transaction when there is one, so it commits or rolls back with the write.
+	// Whole seconds, as that is all Last-Modified can carry.
+	public void bump(Long userId) {
+		taskListVersionRepository.increment(userId, LocalDateTime.now(clock).truncatedTo(ChronoUnit.SECONDS));
+	}
+}
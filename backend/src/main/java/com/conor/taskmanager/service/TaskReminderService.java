@@ -6,10 +6,13 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskEvent;
+import com.conor.taskmanager.model.TaskResponse;
 import com.conor.taskmanager.model.User;
 import com.conor.taskmanager.repository.TaskRepository;
 
@@ -20,16 +23,22 @@ public class TaskReminderService {
 	private final TaskRepository taskRepository;
 	private final NotificationSettingsService notificationSettingsService;
 	private final NtfyNotificationService ntfyNotificationService;
+	private final TaskListVersions taskListVersions;
+	private final ApplicationEventPublisher eventPublisher;
 	private final int reminderMinutesBeforeDue;
 
 	public TaskReminderService(
 			TaskRepository taskRepository,
 			NotificationSettingsService notificationSettingsService,
 			NtfyNotificationService ntfyNotificationService,
+			TaskListVersions taskListVersions,
+			ApplicationEventPublisher eventPublisher,
 			@Value("${notifications.reminder.minutes-before-due:30}") int reminderMinutesBeforeDue) {
 		this.taskRepository = taskRepository;
 		this.notificationSettingsService = notificationSettingsService;
 		this.ntfyNotificationService = ntfyNotificationService;
+		this.taskListVersions = taskListVersions;
+		this.eventPublisher = eventPublisher;
 		this.reminderMinutesBeforeDue = reminderMinutesBeforeDue;
 	}
 
@@ -52,7 +61,9 @@ public class TaskReminderService {
 			try {
 				ntfyNotificationService.sendTaskReminder(user, task);
 				task.setReminderSentAt(LocalDateTime.now());
-				taskRepository.save(task);
+				Task saved = taskRepository.save(task);
+				taskListVersions.bump(user.getId());
+				eventPublisher.publishEvent(TaskEvent.reminderSent(TaskResponse.from(saved)));
 			} catch (Exception exception) {
 				logger.warn("Failed to send reminder for task {}", task.getId(), exception);
 			}
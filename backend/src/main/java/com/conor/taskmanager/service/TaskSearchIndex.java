@@ -0,0 +1,22 @@
+package com.conor.taskmanager.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.conor.taskmanager.model.TaskResponse;
+
+/**
+ * Ranked word search over a user's task titles and descriptions.
+ * Every term must match, either as a whole word or as a word prefix.
+ */
+public interface TaskSearchIndex {
+
+    List<TaskResponse> search(Long userId, List<String> terms, int offset, int limit);
+
+    // Called for every written task; only indexes kept outside the database need them
+    default void index(TaskResponse task) {
+    }
+
+    default void remove(Collection<Long> taskIds) {
+    }
+}
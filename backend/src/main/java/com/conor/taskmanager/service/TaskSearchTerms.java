@@ -0,0 +1,43 @@
+package com.conor.taskmanager.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits search queries and task text into the words both search indexes work on.
+ * Words shorter than MIN_LENGTH are dropped, matching InnoDB's default
+ * innodb_ft_min_token_size, so the two indexes agree on what is searchable.
+ */
+final class TaskSearchTerms {
+
+    static final int MIN_LENGTH = 3;
+    static final int MAX_QUERY_TERMS = 10;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TaskSearchTerms() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.length() >= MIN_LENGTH) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    // Distinct query words, in the order typed
+    static List<String> parseQuery(String query) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        return terms.stream().limit(MAX_QUERY_TERMS).toList();
+    }
+}
@@ -1,15 +1,29 @@
 package com.conor.taskmanager.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.conor.taskmanager.exception.TaskNotFoundException;
 import com.conor.taskmanager.exception.ForbiddenException;
+import com.conor.taskmanager.exception.PreconditionFailedException;
+import com.conor.taskmanager.exception.ValidationException;
 import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskEvent;
+import com.conor.taskmanager.model.TaskFilter;
+import com.conor.taskmanager.model.TaskPage;
+import com.conor.taskmanager.model.TaskPatchRequest;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.model.TaskSearchPage;
 import com.conor.taskmanager.model.User;
+import com.conor.taskmanager.repository.TaskQueryRepository;
 import com.conor.taskmanager.repository.TaskRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -18,41 +32,149 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class TaskService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    private static final String STALE_VERSION_MESSAGE = "Task has been modified since it was read";
+
     private final TaskRepository taskRepository;
+    private final TaskQueryRepository taskQueryRepository;
     private final UserLookupService userLookupService;
+    private final TaskListVersions taskListVersions;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskCache taskCache;
+    private final TaskSummaryService taskSummaryService;
+    private final TaskSyncService taskSyncService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Outside a transaction, so it reads the primary
+    public String getTaskListETag(Long userId) {
+        return taskListVersions.currentETag(userId);
+    }
 
+    // Tagged with the version read in the same snapshot as the tasks. A replica that
+    // hasn't caught up gives an older tag with its older rows, never the primary's newer one.
     @Transactional(readOnly = true)
-    public List<Task> getTasksForUser(Long userId) {
-        User user = userLookupService.getUserById(userId);
-        return taskRepository.findByUser(user);
+    public TaskListing getTaskListing(Long userId, TaskFilter filter) {
+        String eTag = taskListVersions.currentETag(userId);
+        return new TaskListing(getTasksForUser(userId, filter), eTag);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskResponse> getTasksForUser(Long userId, TaskFilter filter) {
+        validateFilter(filter);
+        // Only the unfiltered listing is cached; it is what the task board loads
+        if (filter.equals(TaskFilter.none())) {
+            return taskCache.getTasks(userId, () -> taskQueryRepository.findAll(userId, filter, LocalDateTime.now()));
+        }
+        return taskQueryRepository.findAll(userId, filter, LocalDateTime.now());
     }
 
+    // Hands tasks to the consumer one at a time as rows arrive, so the full
+    // listing is never held in memory
     @Transactional(readOnly = true)
-    public Task getTaskById(Integer id, Long userId) {
-        User user = userLookupService.getUserById(userId);
-        return getTaskByIdAndVerifyOwnership(id, user);
+    public void streamTasksForUser(Long userId, TaskFilter filter, Consumer<TaskResponse> consumer) {
+        validateFilter(filter);
+        try (Stream<TaskResponse> tasks = taskQueryRepository.streamAll(userId, filter, LocalDateTime.now())) {
+            tasks.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public TaskPage getTaskPage(Long userId, TaskFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (filter.sort() != null && filter.sort() != TaskFilter.SortOrder.DUE_DATE_ASC) {
+            throw new ValidationException("Paginated listings can only be sorted by DUE_DATE_ASC");
+        }
+        validateFilter(filter);
+
+        TaskCursor position = cursor == null ? null : TaskCursor.decode(cursor);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Fetch one extra row so we know whether another page follows
+        List<TaskResponse> tasks = new ArrayList<>(limit + 1);
+        if (position == null) {
+            tasks.addAll(taskQueryRepository.findDatedPage(userId, filter, now, null, null, limit + 1));
+        } else if (position.dueDate() != null) {
+            tasks.addAll(taskQueryRepository.findDatedPage(
+                    userId, filter, now, position.dueDate(), position.id(), limit + 1));
+        }
+
+        if (tasks.size() <= limit) {
+            Long afterId = position != null && position.dueDate() == null ? position.id() : 0L;
+            tasks.addAll(taskQueryRepository.findUndatedPage(
+                    userId, filter, now, afterId, limit + 1 - tasks.size()));
+        }
+
+        if (tasks.size() <= limit) {
+            return new TaskPage(tasks, null);
+        }
+
+        List<TaskResponse> page = tasks.subList(0, limit);
+        return new TaskPage(List.copyOf(page), TaskCursor.of(page.get(limit - 1)).encode());
+    }
+
+    // Offset paging, since relevance order has no stable key to resume from
+    public TaskSearchPage searchTasks(Long userId, String query, int offset, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (offset < 0) {
+            throw new ValidationException("Offset must not be negative");
+        }
+        List<String> terms = TaskSearchTerms.parseQuery(query);
+        if (terms.isEmpty()) {
+            throw new ValidationException("Search query must contain a word of at least "
+                    + TaskSearchTerms.MIN_LENGTH + " characters");
+        }
+
+        // Fetch one extra match so we know whether another page follows
+        List<TaskResponse> matches = taskSearchIndex.search(userId, terms, offset, limit + 1);
+        if (matches.size() <= limit) {
+            return new TaskSearchPage(matches, null);
+        }
+        return new TaskSearchPage(List.copyOf(matches.subList(0, limit)), offset + limit);
+    }
+
+    @Transactional(readOnly = true)
+    public TaskResponse getTaskById(Long id, Long userId) {
+        TaskResponse cached = taskCache.getTask(userId, id);
+        if (cached != null) {
+            return cached;
+        }
+        return taskQueryRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> taskNotAccessible(id));
     }
 
     @Transactional
-    public Task createTask(Task task, Long userId) {
-        User user = userLookupService.getUserById(userId);
+    public TaskResponse createTask(Task task, Long userId) {
+        User user = userLookupService.getUserReference(userId);
 
         task.setUser(user);
         task.setStatus(Task.Status.PENDING);
         task.setPriority(Task.Priority.LOW);
 
-        return taskRepository.save(task);
+        TaskResponse saved = TaskResponse.from(taskRepository.save(task));
+        taskSummaryService.record(userId, new TaskCounterDelta().add(saved.status(), saved.priority()));
+        taskListVersions.bump(userId);
+        taskSearchIndex.index(saved);
+        eventPublisher.publishEvent(TaskEvent.created(saved));
+        return saved;
     }
 
     @Transactional
-    public Task updateTask(Integer id, Task updatedTask, Long userId) {
-        User user = userLookupService.getUserById(userId);
-        Task existingTask = getTaskByIdAndVerifyOwnership(id, user);
+    public TaskResponse updateTask(Long id, Task updatedTask, Long userId, Long expectedVersion) {
+        Task existingTask = taskRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> taskNotAccessible(id));
+        checkVersion(existingTask, expectedVersion);
+        Task.Status oldStatus = existingTask.getStatus();
+        Task.Priority oldPriority = existingTask.getPriority();
 
         existingTask.setTitle(updatedTask.getTitle());
         existingTask.setDescription(updatedTask.getDescription());
 
-        if (shouldResetReminder(existingTask, updatedTask)) {
+        if (shouldResetReminder(existingTask.getStatus(), existingTask.getDueDate(),
+                updatedTask.getStatus(), updatedTask.getDueDate())) {
             existingTask.setReminderSentAt(null);
         }
 
@@ -60,33 +182,107 @@ public class TaskService {
         existingTask.setPriority(updatedTask.getPriority());
         existingTask.setDueDate(updatedTask.getDueDate());
 
-        return taskRepository.save(existingTask);
+        // Flushed so the response carries the version the UPDATE just wrote
+        TaskResponse saved = TaskResponse.from(taskRepository.saveAndFlush(existingTask));
+        taskSummaryService.record(userId,
+                new TaskCounterDelta().change(oldStatus, oldPriority, saved.status(), saved.priority()));
+        taskListVersions.bump(userId);
+        taskSearchIndex.index(saved);
+        eventPublisher.publishEvent(TaskEvent.updated(saved));
+        return saved;
+    }
+
+    // Only the fields sent are changed; with dynamic updates Hibernate writes just those columns
+    @Transactional
+    public TaskResponse patchTask(Long id, TaskPatchRequest patch, Long userId, Long expectedVersion) {
+        if (!patch.hasChanges()) {
+            throw new ValidationException("At least one field must be provided");
+        }
+
+        Task existingTask = taskRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> taskNotAccessible(id));
+        checkVersion(existingTask, expectedVersion);
+        Task.Status oldStatus = existingTask.getStatus();
+        Task.Priority oldPriority = existingTask.getPriority();
+
+        Task.Status newStatus = patch.getStatus() != null ? patch.getStatus() : existingTask.getStatus();
+        LocalDateTime newDueDate = patch.hasDueDate() ? patch.getDueDate() : existingTask.getDueDate();
+        if (shouldResetReminder(existingTask.getStatus(), existingTask.getDueDate(), newStatus, newDueDate)) {
+            existingTask.setReminderSentAt(null);
+        }
+
+        if (patch.getTitle() != null) {
+            existingTask.setTitle(patch.getTitle());
+        }
+        if (patch.getDescription() != null) {
+            existingTask.setDescription(patch.getDescription());
+        }
+        if (patch.getPriority() != null) {
+            existingTask.setPriority(patch.getPriority());
+        }
+        existingTask.setStatus(newStatus);
+        existingTask.setDueDate(newDueDate);
+
+        // Flushed so the response carries the version the UPDATE just wrote
+        TaskResponse saved = TaskResponse.from(taskRepository.saveAndFlush(existingTask));
+        taskSummaryService.record(userId,
+                new TaskCounterDelta().change(oldStatus, oldPriority, saved.status(), saved.priority()));
+        taskListVersions.bump(userId);
+        taskSearchIndex.index(saved);
+        eventPublisher.publishEvent(TaskEvent.updated(saved));
+        return saved;
     }
 
     @Transactional
-    public void deleteTask(Integer id, Long userId) {
-        User user = userLookupService.getUserById(userId);
-        Task task = getTaskByIdAndVerifyOwnership(id, user);
-        taskRepository.delete(task);
+    public void deleteTask(Long id, Long userId, Long expectedVersion) {
+        TaskResponse existing = taskQueryRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> taskNotAccessible(id));
+        if (expectedVersion != null && !expectedVersion.equals(existing.version())) {
+            throw new PreconditionFailedException(STALE_VERSION_MESSAGE);
+        }
+        // Deleting at the version just read guarantees the counts removed are the deleted row's
+        if (taskRepository.deleteByIdAndUserIdAndVersion(id, userId, existing.version()) == 0) {
+            throw new PreconditionFailedException(STALE_VERSION_MESSAGE);
+        }
+        taskSummaryService.record(userId, new TaskCounterDelta().remove(existing.status(), existing.priority()));
+        taskSyncService.recordDeleted(userId, List.of(id));
+        taskListVersions.bump(userId);
+        taskSearchIndex.remove(List.of(id));
+        eventPublisher.publishEvent(TaskEvent.deleted(userId, id));
     }
 
-    private boolean shouldResetReminder(Task existingTask, Task updatedTask) {
-        boolean dueDateChanged = !Objects.equals(existingTask.getDueDate(), updatedTask.getDueDate());
-        boolean taskReopened = existingTask.getStatus() == Task.Status.COMPLETED
-                            && updatedTask.getStatus() != Task.Status.COMPLETED;
+    static boolean shouldResetReminder(Task.Status currentStatus, LocalDateTime currentDueDate,
+            Task.Status newStatus, LocalDateTime newDueDate) {
+        boolean dueDateChanged = !Objects.equals(currentDueDate, newDueDate);
+        boolean taskReopened = currentStatus == Task.Status.COMPLETED
+                            && newStatus != Task.Status.COMPLETED;
         return dueDateChanged || taskReopened;
     }
 
-    private Task getTaskByIdAndVerifyOwnership(Integer id, User user) {
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new TaskNotFoundException("Task not found"));
-        verifyTaskOwnership(task, user);
-        return task;
+    // expectedVersion comes from If-Match and is null when the client sent none.
+    // A write racing past this check still fails on the UPDATE's version predicate.
+    private static void checkVersion(Task task, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            throw new PreconditionFailedException(STALE_VERSION_MESSAGE);
+        }
+    }
+
+    // Public so streaming callers can reject a bad filter before the response is committed
+    public void validateFilter(TaskFilter filter) {
+        if (filter.dueFrom() != null && filter.dueTo() != null && !filter.dueFrom().isBefore(filter.dueTo())) {
+            throw new ValidationException("dueFrom must be before dueTo");
+        }
     }
 
-    private void verifyTaskOwnership(Task task, User user) {
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new ForbiddenException("You do not have permission to access this task");
+    // Only called once an ownership-scoped statement matched nothing,
+    // to tell a missing task (404) apart from someone else's (403)
+    private RuntimeException taskNotAccessible(Long id) {
+        if (taskRepository.existsById(id)) {
+            return new ForbiddenException("You do not have permission to access this task");
         }
+        return new TaskNotFoundException("Task not found");
+    }
+
+    public record TaskListing(List<TaskResponse> tasks, String eTag) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package com.conor.taskmanager.service;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskSummary;
+import com.conor.taskmanager.repository.TaskCounterRepository;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class TaskSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSummaryService.class);
+
+    private final TaskCounterRepository taskCounterRepository;
+    private final TaskQueryRepository taskQueryRepository;
+
+    // Status and priority counts come from the user's counters row. Overdue and
+    // due-today depend on the clock, so they are counted from the (user_id, status,
+    // due_date) index, touching only open tasks due before tomorrow.
+    public TaskSummary getSummary(Long userId) {
+        TaskCounterRepository.Counts counts = taskCounterRepository.findCounts(userId);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
+        TaskQueryRepository.DueCounts due = taskQueryRepository.countOpenDue(userId, now, startOfDay,
+                startOfDay.plusDays(1));
+
+        Map<Task.Status, Long> byStatus = nonNegative(counts.byStatus(), Task.Status.class);
+        Map<Task.Priority, Long> byPriority = nonNegative(counts.byPriority(), Task.Priority.class);
+        long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+        return new TaskSummary(total, byStatus, byPriority, due.overdue(), due.dueToday());
+    }
+
+    // Runs inside the caller's transaction, so counts commit or roll back with the task change
+    void record(Long userId, TaskCounterDelta delta) {
+        if (!delta.isEmpty()) {
+            taskCounterRepository.addCounts(userId, delta.statusChanges(), delta.priorityChanges());
+        }
+    }
+
+    // Repairs any drift (manual SQL, a bug, a restore) by recounting from the task table.
+    // One statement per user, so no lock is held across users.
+    @Scheduled(cron = "${tasks.summary.rebuild-cron:0 30 3 * * *}")
+    public void rebuildCounters() {
+        List<Long> userIds = taskCounterRepository.findUserIds();
+        for (Long userId : userIds) {
+            taskCounterRepository.rebuild(userId);
+        }
+        logger.info("Rebuilt task counters for {} users", userIds.size());
+    }
+
+    // A drifted counter is shown as zero until the next rebuild rather than going negative
+    private static <E extends Enum<E>> Map<E, Long> nonNegative(Map<E, Long> counts, Class<E> type) {
+        Map<E, Long> result = new EnumMap<>(type);
+        counts.forEach((key, count) -> result.put(key, Math.max(0, count)));
+        return result;
+    }
+}
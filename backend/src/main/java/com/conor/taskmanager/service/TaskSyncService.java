@@ -0,0 +1,75 @@
+package com.conor.taskmanager.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.conor.taskmanager.exception.SyncTokenExpiredException;
+import com.conor.taskmanager.model.TaskChanges;
+import com.conor.taskmanager.model.TaskFilter;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+import com.conor.taskmanager.repository.TaskTombstoneRepository;
+
+@Service
+public class TaskSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSyncService.class);
+
+    // updated_at is stamped before commit, so a row can become visible slightly after
+    // its timestamp. Tokens trail the clock by this much so those rows are still
+    // picked up on the following sync, at the cost of resending recent changes.
+    static final Duration COMMIT_GRACE = Duration.ofSeconds(30);
+
+    private final TaskQueryRepository taskQueryRepository;
+    private final TaskTombstoneRepository taskTombstoneRepository;
+    private final Duration tombstoneRetention;
+
+    public TaskSyncService(TaskQueryRepository taskQueryRepository, TaskTombstoneRepository taskTombstoneRepository,
+            @Value("${tasks.sync.tombstone-retention-days:30}") long tombstoneRetentionDays) {
+        this.taskQueryRepository = taskQueryRepository;
+        this.taskTombstoneRepository = taskTombstoneRepository;
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+    }
+
+    // Without a token this is a full sync: every task and a first token
+    @Transactional(readOnly = true)
+    public TaskChanges getChanges(Long userId, String token) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextSince = now.minus(COMMIT_GRACE);
+
+        if (token == null) {
+            List<TaskResponse> tasks = taskQueryRepository.findAll(userId, TaskFilter.none(), now);
+            return new TaskChanges(tasks, List.of(), new TaskSyncToken(nextSince).encode());
+        }
+
+        LocalDateTime since = TaskSyncToken.decode(token).since();
+        if (since.isBefore(now.minus(tombstoneRetention))) {
+            throw new SyncTokenExpiredException("Sync token has expired; fetch the full task list again");
+        }
+
+        List<TaskResponse> changed = taskQueryRepository.findChangedSince(userId, since);
+        List<Long> deleted = taskTombstoneRepository.findDeletedSince(userId, since);
+        // Never move a token backwards when a client syncs again within the grace window
+        LocalDateTime next = nextSince.isAfter(since) ? nextSince : since;
+        return new TaskChanges(changed, deleted, new TaskSyncToken(next).encode());
+    }
+
+    // Joins the caller's transaction, so a tombstone exists exactly when the delete commits
+    void recordDeleted(Long userId, List<Long> taskIds) {
+        taskTombstoneRepository.insertAll(userId, taskIds, LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "${tasks.sync.tombstone-purge-cron:0 0 4 * * *}")
+    public void purgeExpiredTombstones() {
+        int purged = taskTombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+        logger.info("Purged {} expired task tombstones", purged);
+    }
+}
@@ -0,0 +1,28 @@
+package com.conor.taskmanager.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.conor.taskmanager.exception.ValidationException;
+
+/**
+ * Point in time a client has synced up to. Opaque to clients, like {@link TaskCursor}.
+ */
+record TaskSyncToken(LocalDateTime since) {
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(since.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TaskSyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new TaskSyncToken(LocalDateTime.parse(raw));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid sync token");
+        }
+    }
+}
@@ -26,4 +26,9 @@ public class UserLookupService {
         return userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
     }
+
+    // Reference for associating rows with an already authenticated user, without a SELECT
+    public User getUserReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
 }
@@ -20,6 +20,9 @@ import com.conor.taskmanager.model.RegisterRequest;
 import com.conor.taskmanager.model.User;
 import com.conor.taskmanager.repository.UserRepository;
 import com.conor.taskmanager.security.JwtService;
+import com.conor.taskmanager.security.RevokedTokens;
+import com.conor.taskmanager.security.TokenVersionCache;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -30,6 +33,9 @@ public class UserService {
   private final PasswordEncoder passwordEncoder;
   private final AuthenticationManager authManager;
   private final JwtService jwtService;
+  private final TokenVersionCache tokenVersionCache;
+  private final RefreshTokenService refreshTokenService;
+  private final RevokedTokens revokedTokens;
 
   @Transactional
   public LoginResponse registerUser(RegisterRequest request) {
@@ -60,11 +66,11 @@ public class UserService {
     user.setUserRole("user");
 
     User savedUser = userRepository.save(user);
-    String token = jwtService.generateToken(savedUser.getId(), savedUser.getUserName());
-    return new LoginResponse(savedUser.getUserName(), token);
+    return startSession(savedUser);
   }
 
-  @Transactional(readOnly = true)
+  // Not read-only: a login stores its refresh token
+  @Transactional
   public LoginResponse login(Login loginRequest) {
     User user = userRepository.findByUserNameOrEmail(loginRequest.getUserName())
         .orElseThrow(() -> new InvalidCredentialsException("Invalid username or password"));
@@ -77,8 +83,7 @@ public class UserService {
       throw new InvalidCredentialsException("Invalid username or password");
     }
 
-    String token = jwtService.generateToken(user.getId(), user.getUserName());
-    return new LoginResponse(user.getUserName(), token);
+    return startSession(user);
   }
 
   @Transactional(readOnly = true)
@@ -86,8 +91,9 @@ public class UserService {
     return userLookupService.getUserById(userId);
   }
 
+  // Every token issued before the change stops working, refresh tokens included, so the caller gets a new pair
   @Transactional
-  public void changePassword(Long userId, PasswordChangeRequest request) {
+  public LoginResponse changePassword(Long userId, PasswordChangeRequest request) {
     User user = userLookupService.getUserById(userId);
 
     if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
@@ -99,6 +105,29 @@ public class UserService {
     }
 
     user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+    user.setTokenVersion(user.getTokenVersion() + 1);
     userRepository.save(user);
+    tokenVersionCache.update(userId, user.getTokenVersion());
+    refreshTokenService.revokeAll(userId);
+    return startSession(user);
+  }
+
+  // Ends the session now rather than at expiry: the refresh token's family and, when given, the access token
+  @Transactional
+  public void logout(String accessToken, String refreshToken) {
+    refreshTokenService.revoke(refreshToken);
+    if (accessToken != null) {
+      try {
+        revokedTokens.revoke(jwtService.verify(accessToken));
+      } catch (JwtException e) {
+        // Already expired or never valid, so there is nothing to revoke
+      }
+    }
+  }
+
+  private LoginResponse startSession(User user) {
+    String token = jwtService.generateToken(user.getId(), user.getUserName(), user.getUserRole(),
+        user.getTokenVersion());
+    return new LoginResponse(user.getUserName(), token, refreshTokenService.issue(user.getId()));
   }
 }
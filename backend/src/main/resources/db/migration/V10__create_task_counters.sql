@@ -0,0 +1,28 @@
+CREATE TABLE IF NOT EXISTS task_counters (
+  user_id BIGINT PRIMARY KEY,
+
+  status_pending BIGINT NOT NULL DEFAULT 0,
+  status_in_progress BIGINT NOT NULL DEFAULT 0,
+  status_completed BIGINT NOT NULL DEFAULT 0,
+
+  priority_low BIGINT NOT NULL DEFAULT 0,
+  priority_medium BIGINT NOT NULL DEFAULT 0,
+  priority_high BIGINT NOT NULL DEFAULT 0,
+
+  CONSTRAINT fk_task_counters_user
+    FOREIGN KEY (user_id)
+    REFERENCES `user` (id)
+    ON DELETE CASCADE
+);
+
+INSERT INTO task_counters (user_id, status_pending, status_in_progress, status_completed,
+                           priority_low, priority_medium, priority_high)
+SELECT user_id,
+       SUM(CASE WHEN status = 'PENDING' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'IN_PROGRESS' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN priority = 'LOW' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN priority = 'MEDIUM' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN priority = 'HIGH' THEN 1 ELSE 0 END)
+FROM task
+GROUP BY user_id;
@@ -0,0 +1,21 @@
+ALTER TABLE task
+  ADD COLUMN updated_at DATETIME(6) NULL;
+
+UPDATE task SET updated_at = created_date;
+
+ALTER TABLE task
+  MODIFY updated_at DATETIME(6) NOT NULL,
+  ADD INDEX idx_task_user_updated_at (user_id, updated_at);
+
+CREATE TABLE IF NOT EXISTS task_tombstone (
+  task_id BIGINT PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  deleted_at DATETIME(6) NOT NULL,
+
+  INDEX idx_task_tombstone_user_deleted_at (user_id, deleted_at),
+
+  CONSTRAINT fk_task_tombstone_user
+    FOREIGN KEY (user_id)
+    REFERENCES `user` (id)
+    ON DELETE CASCADE
+);
@@ -0,0 +1,3 @@
+ALTER TABLE `user`
+  ADD COLUMN calendar_token VARCHAR(64) NULL,
+  ADD UNIQUE INDEX uk_user_calendar_token (calendar_token);
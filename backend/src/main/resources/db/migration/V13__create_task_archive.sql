@@ -0,0 +1,30 @@
+-- Completed tasks past the archive age are moved here by TaskArchiveService,
+-- keeping the task table and its indexes down to live tasks
+CREATE TABLE IF NOT EXISTS task_archive (
+  id BIGINT PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+
+  title VARCHAR(50) NOT NULL,
+  description VARCHAR(5000) NOT NULL,
+
+  status VARCHAR(20) NOT NULL,
+  priority VARCHAR(20) NOT NULL,
+
+  due_date DATETIME NULL,
+  created_date DATETIME NOT NULL,
+  reminder_sent_at DATETIME NULL,
+  version BIGINT NOT NULL,
+  updated_at DATETIME(6) NOT NULL,
+  archived_at DATETIME(6) NOT NULL,
+
+  INDEX idx_task_archive_user_id (user_id, id),
+
+  CONSTRAINT fk_task_archive_user
+    FOREIGN KEY (user_id)
+    REFERENCES `user` (id)
+    ON DELETE CASCADE
+);
+
+-- Lets the archiver find the oldest completed tasks without scanning the table
+ALTER TABLE task
+  ADD INDEX idx_task_status_updated_at (status, updated_at);
@@ -0,0 +1,8 @@
+-- ReplicaLagMonitor writes the time to this row on the primary and reads it back
+-- from each replica; how old a replica's copy is shows how far behind it is
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+  id INT PRIMARY KEY,
+  beat_at DATETIME(6) NOT NULL
+);
+
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP(6));
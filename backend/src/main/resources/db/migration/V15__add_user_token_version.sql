@@ -0,0 +1,4 @@
+-- Carried in every JWT and bumped on password change, so tokens issued
+-- before the change stop being accepted
+ALTER TABLE user
+  ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,24 @@
+-- Refresh tokens are stored as SHA-256 hashes. Each login starts a family;
+-- every refresh marks the presented token used and adds its successor to the
+-- family, and presenting a used token again revokes the whole family.
+CREATE TABLE IF NOT EXISTS refresh_token (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  token_hash CHAR(64) NOT NULL,
+  user_id BIGINT NOT NULL,
+  family_id CHAR(36) NOT NULL,
+
+  created_at DATETIME(6) NOT NULL,
+  expires_at DATETIME(6) NOT NULL,
+  family_expires_at DATETIME(6) NOT NULL,
+  used_at DATETIME(6) NULL,
+
+  UNIQUE INDEX uk_refresh_token_hash (token_hash),
+  INDEX idx_refresh_token_family (family_id),
+  INDEX idx_refresh_token_user (user_id),
+  INDEX idx_refresh_token_expires_at (expires_at),
+
+  CONSTRAINT fk_refresh_token_user
+    FOREIGN KEY (user_id)
+    REFERENCES `user` (id)
+    ON DELETE CASCADE
+);
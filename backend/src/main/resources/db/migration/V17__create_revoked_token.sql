@@ -0,0 +1,17 @@
+-- Access tokens revoked before their expiry, by JWT id (jti). Every instance
+-- mirrors the rows into memory, polling for new ones by revoked_at. A row is
+-- only needed until the token would have expired anyway (expires_at, UTC).
+CREATE TABLE IF NOT EXISTS revoked_token (
+  jti CHAR(36) NOT NULL PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  expires_at DATETIME(6) NOT NULL,
+  revoked_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+
+  INDEX idx_revoked_token_revoked_at (revoked_at),
+  INDEX idx_revoked_token_expires_at (expires_at),
+
+  CONSTRAINT fk_revoked_token_user
+    FOREIGN KEY (user_id)
+    REFERENCES `user` (id)
+    ON DELETE CASCADE
+);
@@ -0,0 +1,4 @@
+-- Per-user version of the task list, bumped in the same transaction as every
+-- task write, so all instances agree on the list's ETag and cache key
+ALTER TABLE user
+  ADD COLUMN task_list_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- When task_list_version last moved; the calendar feed's Last-Modified.
+-- Always at least a second past the previous value, so it never goes back
+-- when instances' clocks disagree
+ALTER TABLE user
+  ADD COLUMN task_list_changed_at DATETIME(6) NULL;
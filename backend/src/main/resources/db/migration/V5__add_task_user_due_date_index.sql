@@ -0,0 +1,2 @@
+ALTER TABLE task
+  ADD INDEX idx_task_user_due_date (user_id, due_date, id);
@@ -0,0 +1,4 @@
+ALTER TABLE task
+  ADD INDEX idx_task_user_status_due_date (user_id, status, due_date),
+  ADD INDEX idx_task_user_priority_due_date (user_id, priority, due_date),
+  ADD INDEX idx_task_user_created_date (user_id, created_date);
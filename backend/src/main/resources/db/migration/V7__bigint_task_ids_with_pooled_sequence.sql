@@ -0,0 +1,14 @@
+-- Task ids become BIGINT and are assigned by Hibernate from a pooled sequence
+-- table (allocationSize = 50), so inserts can be batched and ids no longer
+-- need a round trip per row. Existing ids are kept unchanged.
+ALTER TABLE task MODIFY id BIGINT NOT NULL;
+
+-- MySQL has no sequences; Hibernate emulates task_id_seq with a one-row table.
+CREATE TABLE task_id_seq (
+  next_val BIGINT
+);
+
+-- The pooled optimizer hands out (next_val - 49 .. next_val] from the first value
+-- it reads, so start a full block above the current highest id.
+INSERT INTO task_id_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM task;
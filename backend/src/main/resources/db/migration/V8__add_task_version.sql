@@ -0,0 +1,3 @@
+-- Optimistic locking: bumped on every task update and exposed to clients as the task's ETag
+ALTER TABLE task
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
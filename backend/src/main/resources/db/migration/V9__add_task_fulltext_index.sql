@@ -0,0 +1,2 @@
+ALTER TABLE task
+  ADD FULLTEXT INDEX ft_task_title_description (title, description);
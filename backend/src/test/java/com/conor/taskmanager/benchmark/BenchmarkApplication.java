@@ -0,0 +1,33 @@
+package com.conor.taskmanager.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.conor.taskmanager.TaskManagerApplication;
+
+/**
+ * Boots the application against an in-memory H2 database for benchmarks.
+ * The Flyway scripts are MySQL-specific, so the schema comes from Hibernate instead.
+ * Settings are passed as command line arguments so they win over application.properties.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TaskManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+                        "--notifications.reminder.poll-interval-ms=3600000",
+                        "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,122 @@
+package com.conor.taskmanager.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.conor.taskmanager.security.JwtService;
+import com.conor.taskmanager.security.VerifiedToken;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Per-request cost of checking the bearer token in JwtFilter.
+ * {@code legacyFilterPath} is the previous path: extractUserId, then validateToken,
+ * which parsed twice more, with every parse decoding the secret and building a new
+ * key and parser. {@code singleParse} is one parse with the prebuilt parser (cache
+ * disabled), and {@code cachedVerify} is a repeat request hitting the token cache.
+ * The {@code Contended} variants run the same calls from eight threads at once, with
+ * {@code synchronizedLruContended} standing in for the earlier cache, an access-ordered
+ * LinkedHashMap behind one monitor, to show the lock-free lookup keeps its lead:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtVerification
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService uncached;
+    private JwtService cached;
+    private String token;
+    private Map<ByteBuffer, VerifiedToken> synchronizedLru;
+
+    @Setup
+    public void setUp() {
+        uncached = new JwtService(SECRET, 0);
+        cached = new JwtService(SECRET, 10_000);
+        token = cached.generateToken(42L, "bench", "user", 0L);
+        cached.verify(token);
+        synchronizedLru = new LinkedHashMap<>(16, 0.75f, true);
+        synchronizedLru.put(sha256(token), cached.verify(token));
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        Long userId = Long.valueOf(legacyClaims(token).getSubject());
+        return Long.valueOf(legacyClaims(token).getSubject()).equals(userId)
+                && !legacyClaims(token).getExpiration().toInstant().isBefore(Instant.now());
+    }
+
+    @Benchmark
+    public VerifiedToken singleParse() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken cachedVerify() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public VerifiedToken singleParseContended() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public VerifiedToken cachedVerifyContended() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public VerifiedToken synchronizedLruContended() {
+        ByteBuffer hash = sha256(token);
+        // An access-ordered get moves the entry, so even reads need the monitor
+        synchronized (synchronizedLru) {
+            return synchronizedLru.get(hash);
+        }
+    }
+
+    private static ByteBuffer sha256(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The previous JwtService.extractAllClaims
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
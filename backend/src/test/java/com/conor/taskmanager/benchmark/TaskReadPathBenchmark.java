@@ -0,0 +1,97 @@
+package com.conor.taskmanager.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskFilter;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Compares listing a user's tasks through JPA entities (the previous read path:
+ * hydrated Task entities with their eagerly fetched User) against the JDBC
+ * read path that maps rows straight to TaskResponse records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskReadPathBenchmark {
+
+    @Param({ "100", "1000" })
+    private int taskCount;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTransaction;
+    private EntityManager entityManager;
+    private TaskQueryRepository taskQueryRepository;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        entityManager = context.getBean(EntityManager.class);
+        taskQueryRepository = context.getBean(TaskQueryRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        JdbcClient jdbcClient = context.getBean(JdbcClient.class);
+        jdbcClient.sql("INSERT INTO user (email, password, user_name, user_role, ntfy_enabled)"
+                + " VALUES ('bench@example.com', 'x', 'bench', 'user', false)").update();
+        userId = jdbcClient.sql("SELECT id FROM user WHERE user_name = 'bench'").query(Long.class).single();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < taskCount; i++) {
+            jdbcClient.sql("INSERT INTO task (user_id, title, description, status, priority, due_date, created_date)"
+                    + " VALUES (:userId, :title, :description, 'PENDING', 'MEDIUM', :dueDate, :createdDate)")
+                    .param("userId", userId)
+                    .param("title", "Task " + i)
+                    .param("description", "Description for task " + i + " ".repeat(200))
+                    .param("dueDate", now.plusHours(i))
+                    .param("createdDate", now)
+                    .update();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Task> jpaEntities() {
+        return readOnlyTransaction.execute(status -> entityManager
+                .createQuery("SELECT t FROM Task t WHERE t.user.id = :userId", Task.class)
+                .setParameter("userId", userId)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<TaskResponse> jdbcRecords() {
+        return readOnlyTransaction.execute(status -> taskQueryRepository
+                .findAll(userId, TaskFilter.none(), LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.conor.taskmanager.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskResponse;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Serializes one user's task listing in each wire format /api/tasks can send.
+ * {@code legacyJson} is the previous shape, with the owning user embedded in
+ * every task. Encoded sizes are printed once per trial, since JMH only reports time:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TaskWireFormat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskWireFormatBenchmark {
+
+    @Param({ "100", "1000" })
+    private int taskCount;
+
+    private final ObjectMapper jsonMapper = JsonMapper.builder().build();
+
+    private LegacyTask[] legacyTasks;
+    private TaskResponse[] tasks;
+    private ObjectWriter legacyWriter;
+    private ObjectWriter jsonWriter;
+    private ObjectWriter smileWriter;
+    private ObjectWriter cborWriter;
+
+    // Owner fields the Task entity used to serialize with every task
+    record Owner(Long id, String email, String userName, String userRole) {
+    }
+
+    record LegacyTask(Owner user, Long id, String title, String description, Task.Status status,
+            Task.Priority priority, LocalDateTime dueDate, LocalDateTime createdDate,
+            LocalDateTime reminderSentAt, Long version) {
+    }
+
+    @Setup
+    public void setUp() {
+        Owner owner = new Owner(1L, "bench@example.com", "bench", "user");
+        LocalDateTime now = LocalDateTime.now();
+        legacyTasks = new LegacyTask[taskCount];
+        tasks = new TaskResponse[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            TaskResponse task = new TaskResponse((long) i, owner.id(), "Task " + i, "Description for task " + i,
+                    Task.Status.PENDING, Task.Priority.MEDIUM, now.plusHours(i), now, null, 0L);
+            tasks[i] = task;
+            legacyTasks[i] = new LegacyTask(owner, task.id(), task.title(), task.description(), task.status(),
+                    task.priority(), task.dueDate(), task.createdDate(), task.reminderSentAt(), task.version());
+        }
+
+        legacyWriter = jsonMapper.writerFor(LegacyTask[].class);
+        jsonWriter = jsonMapper.writerFor(TaskResponse[].class);
+        smileWriter = SmileMapper.builder().build().writerFor(TaskResponse[].class);
+        cborWriter = CBORMapper.builder().build().writerFor(TaskResponse[].class);
+
+        System.out.printf("%n%d tasks: legacy JSON %d B, JSON %d B, Smile %d B, CBOR %d B%n", taskCount,
+                legacyJson().length, json().length, smile().length, cbor().length);
+    }
+
+    @Benchmark
+    public byte[] legacyJson() {
+        return legacyWriter.writeValueAsBytes(legacyTasks);
+    }
+
+    @Benchmark
+    public byte[] json() {
+        return jsonWriter.writeValueAsBytes(tasks);
+    }
+
+    // What a fresh writer per request costs compared with the reused one in json()
+    @Benchmark
+    public byte[] jsonNewWriter() {
+        return jsonMapper.writerFor(TaskResponse[].class).writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] smile() {
+        return smileWriter.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] cbor() {
+        return cborWriter.writeValueAsBytes(tasks);
+    }
+}
@@ -9,6 +9,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 
+import java.time.Instant;
+
+import io.jsonwebtoken.ExpiredJwtException;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
@@ -20,11 +24,15 @@ import org.springframework.test.web.servlet.MockMvc;
 import com.conor.taskmanager.exception.GlobalExceptionHandler;
 import com.conor.taskmanager.exception.UserNotFoundException;
 import com.conor.taskmanager.exception.ValidationException;
+import com.conor.taskmanager.model.LoginResponse;
 import com.conor.taskmanager.model.PasswordChangeRequest;
 import com.conor.taskmanager.model.User;
 import com.conor.taskmanager.security.CustomUserDetails;
 import com.conor.taskmanager.security.JwtService;
+import com.conor.taskmanager.security.RevokedTokens;
 import com.conor.taskmanager.security.SecurityConfig;
+import com.conor.taskmanager.security.TokenVersionCache;
+import com.conor.taskmanager.security.VerifiedToken;
 import com.conor.taskmanager.security.CustomUserDetailsService;
 import com.conor.taskmanager.service.UserService;
 
@@ -44,6 +52,12 @@ public class AccountControllerTest {
         @MockitoBean
         private JwtService jwtService;
 
+        @MockitoBean
+        private TokenVersionCache tokenVersionCache;
+
+        @MockitoBean
+        private RevokedTokens revokedTokens;
+
         private CustomUserDetails createTestUserDetails(Long id, String username) {
                 User user = new User();
                 user.setId(id);
@@ -91,7 +105,8 @@ public class AccountControllerTest {
         public void changePassword_whenValidRequest_returnsSuccess() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "test@example.com");
 
-                doNothing().when(userService).changePassword(eq(1L), any(PasswordChangeRequest.class));
+                when(userService.changePassword(eq(1L), any(PasswordChangeRequest.class)))
+                                .thenReturn(new LoginResponse("test@example.com", "newToken", "newRefreshToken"));
 
                 mockMvc.perform(post("/api/account/change-password")
                                 .with(user(userDetails))
@@ -99,7 +114,9 @@ public class AccountControllerTest {
                                 .content("{\"currentPassword\":\"oldPassword\",\"newPassword\":\"newPassword123\",\"confirmPassword\":\"newPassword123\"}"))
                                 .andDo(print())
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$.message").value("Password changed successfully"));
+                                .andExpect(jsonPath("$.message").value("Password changed successfully"))
+                                .andExpect(jsonPath("$.token").value("newToken"))
+                                .andExpect(jsonPath("$.refreshToken").value("newRefreshToken"));
         }
 
         @Test
@@ -169,4 +186,59 @@ public class AccountControllerTest {
                                 .andExpect(status().isNotFound())
                                 .andExpect(jsonPath("$.message").value("User not found"));
         }
+
+        @Test
+        public void bearerToken_withCurrentTokenVersion_authenticatesFromClaimsWithoutLoadingUser() throws Exception {
+                VerifiedToken token = new VerifiedToken(1L, "claims-user", "user", 2L, Instant.now(),
+                                Instant.now().plusSeconds(3600), "good-jti");
+                when(jwtService.verify("good")).thenReturn(token);
+                when(tokenVersionCache.isCurrent(1L, 2L)).thenReturn(true);
+                User user = new User();
+                user.setId(1L);
+                user.setUserName("claims-user");
+                when(userService.getCurrentUser(1L)).thenReturn(user);
+
+                mockMvc.perform(get("/api/account/current-user").header("Authorization", "Bearer good"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.userName").value("claims-user"));
+
+                verifyNoInteractions(userDetailsService);
+        }
+
+        @Test
+        public void bearerToken_issuedBeforePasswordChange_isRejected() throws Exception {
+                VerifiedToken token = new VerifiedToken(1L, "claims-user", "user", 1L, Instant.now(),
+                                Instant.now().plusSeconds(3600), "stale-jti");
+                when(jwtService.verify("stale")).thenReturn(token);
+                when(tokenVersionCache.isCurrent(1L, 1L)).thenReturn(false);
+
+                mockMvc.perform(get("/api/account/current-user").header("Authorization", "Bearer stale"))
+                                .andExpect(status().isUnauthorized());
+
+                verify(userService, never()).getCurrentUser(any());
+        }
+
+        @Test
+        public void bearerToken_revoked_isRejectedWithoutCheckingVersion() throws Exception {
+                VerifiedToken token = new VerifiedToken(1L, "claims-user", "user", 2L, Instant.now(),
+                                Instant.now().plusSeconds(3600), "revoked-jti");
+                when(jwtService.verify("revoked")).thenReturn(token);
+                when(revokedTokens.isRevoked("revoked-jti")).thenReturn(true);
+
+                mockMvc.perform(get("/api/account/current-user").header("Authorization", "Bearer revoked"))
+                                .andExpect(status().isUnauthorized());
+
+                verifyNoInteractions(tokenVersionCache);
+                verify(userService, never()).getCurrentUser(any());
+        }
+
+        @Test
+        public void bearerToken_expired_returnsUnauthorizedSoClientCanRefresh() throws Exception {
+                when(jwtService.verify("expired")).thenThrow(new ExpiredJwtException(null, null, "JWT expired"));
+
+                mockMvc.perform(get("/api/account/current-user").header("Authorization", "Bearer expired"))
+                                .andExpect(status().isUnauthorized());
+
+                verify(userService, never()).getCurrentUser(any());
+        }
 }
@@ -28,8 +28,11 @@ import com.conor.taskmanager.model.RegisterRequest;
 import com.conor.taskmanager.model.User;
 import com.conor.taskmanager.security.CustomUserDetails;
 import com.conor.taskmanager.security.JwtService;
+import com.conor.taskmanager.security.RevokedTokens;
 import com.conor.taskmanager.security.SecurityConfig;
+import com.conor.taskmanager.security.TokenVersionCache;
 import com.conor.taskmanager.security.CustomUserDetailsService;
+import com.conor.taskmanager.service.RefreshTokenService;
 import com.conor.taskmanager.service.UserService;
 
 @WebMvcTest(controllers = AuthController.class)
@@ -48,6 +51,15 @@ public class AuthControllerTest {
         @MockitoBean
         private JwtService jwtService;
 
+        @MockitoBean
+        private TokenVersionCache tokenVersionCache;
+
+        @MockitoBean
+        private RevokedTokens revokedTokens;
+
+        @MockitoBean
+        private RefreshTokenService refreshTokenService;
+
         private CustomUserDetails createTestUserDetails(Long id, String username) {
                 User user = new User();
                 user.setId(id);
@@ -236,4 +248,60 @@ public class AuthControllerTest {
                                 .andExpect(status().isInternalServerError())
                                 .andExpect(jsonPath("$.message").value("An unexpected error occurred"));
         }
+
+        @Test
+        public void refresh_whenTokenIsValid_returnsNewPair() throws Exception {
+                when(refreshTokenService.refresh("oldRefreshToken"))
+                                .thenReturn(new LoginResponse("testUser", "newJwtToken", "newRefreshToken"));
+
+                mockMvc.perform(post("/api/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"refreshToken\":\"oldRefreshToken\"}"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.jwtToken").value("newJwtToken"))
+                                .andExpect(jsonPath("$.refreshToken").value("newRefreshToken"));
+        }
+
+        @Test
+        public void refresh_whenTokenIsInvalid_returnsUnauthorized() throws Exception {
+                when(refreshTokenService.refresh("reusedToken"))
+                                .thenThrow(new InvalidCredentialsException("Invalid refresh token"));
+
+                mockMvc.perform(post("/api/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"refreshToken\":\"reusedToken\"}"))
+                                .andExpect(status().isUnauthorized())
+                                .andExpect(jsonPath("$.message").value("Invalid refresh token"));
+        }
+
+        @Test
+        public void refresh_whenTokenIsMissing_returnsBadRequest() throws Exception {
+                mockMvc.perform(post("/api/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{}"))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(refreshTokenService);
+        }
+
+        @Test
+        public void logout_revokesRefreshAndAccessTokens() throws Exception {
+                mockMvc.perform(post("/api/auth/logout")
+                                .header("Authorization", "Bearer accessToken")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"refreshToken\":\"someToken\"}"))
+                                .andExpect(status().isNoContent());
+
+                verify(userService).logout("accessToken", "someToken");
+        }
+
+        @Test
+        public void logout_withoutAccessToken_revokesRefreshToken() throws Exception {
+                mockMvc.perform(post("/api/auth/logout")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"refreshToken\":\"someToken\"}"))
+                                .andExpect(status().isNoContent());
+
+                verify(userService).logout(null, "someToken");
+        }
 }
@@ -0,0 +1,121 @@
+package com.conor.taskmanager.controller;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.conor.taskmanager.exception.GlobalExceptionHandler;
+import com.conor.taskmanager.exception.UserNotFoundException;
+import com.conor.taskmanager.model.User;
+import com.conor.taskmanager.security.CustomUserDetails;
+import com.conor.taskmanager.security.CustomUserDetailsService;
+import com.conor.taskmanager.security.JwtService;
+import com.conor.taskmanager.security.RevokedTokens;
+import com.conor.taskmanager.security.SecurityConfig;
+import com.conor.taskmanager.security.TokenVersionCache;
+import com.conor.taskmanager.service.CalendarFeedService;
+import com.conor.taskmanager.service.CalendarFeedService.CalendarFeed;
+
+@WebMvcTest(controllers = CalendarController.class)
+@Import({ SecurityConfig.class, GlobalExceptionHandler.class })
+public class CalendarControllerTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @MockitoBean
+        private CalendarFeedService calendarFeedService;
+
+        @MockitoBean
+        private JwtService jwtService;
+
+        @MockitoBean
+        private TokenVersionCache tokenVersionCache;
+
+        @MockitoBean
+        private RevokedTokens revokedTokens;
+
+        @MockitoBean
+        private CustomUserDetailsService userDetailsService;
+
+        private static final CalendarFeed FEED = new CalendarFeed(
+                        "BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n".getBytes(StandardCharsets.UTF_8), "abc-3-2026-01-01",
+                        Instant.parse("2026-01-31T10:15:30Z"), 3, LocalDate.of(2026, 1, 1));
+
+        private CustomUserDetails createTestUserDetails(Long id, String username) {
+                User user = new User();
+                user.setId(id);
+                user.setUserName(username);
+                user.setPassword("password");
+                user.setUserRole("user");
+                return new CustomUserDetails(user);
+        }
+
+        @Test
+        public void getFeed_withoutLogin_returnsCalendarWithValidators() throws Exception {
+                when(calendarFeedService.getFeed("secret")).thenReturn(FEED);
+
+                mockMvc.perform(get("/api/calendar/secret.ics"))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                                .andExpect(header().string("ETag", "\"abc-3-2026-01-01\""))
+                                .andExpect(header().string("Last-Modified", "Sat, 31 Jan 2026 10:15:30 GMT"))
+                                .andExpect(content().string("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n"));
+        }
+
+        @Test
+        public void getFeed_whenETagMatches_returnsNotModified() throws Exception {
+                when(calendarFeedService.getFeed("secret")).thenReturn(FEED);
+
+                mockMvc.perform(get("/api/calendar/secret.ics").header("If-None-Match", "\"abc-3-2026-01-01\""))
+                                .andExpect(status().isNotModified())
+                                .andExpect(content().string(""));
+        }
+
+        @Test
+        public void getFeed_whenNotModifiedSinceLastFetch_returnsNotModified() throws Exception {
+                when(calendarFeedService.getFeed("secret")).thenReturn(FEED);
+
+                mockMvc.perform(get("/api/calendar/secret.ics").header("If-Modified-Since", "Sat, 31 Jan 2026 10:15:30 GMT"))
+                                .andExpect(status().isNotModified());
+        }
+
+        @Test
+        public void getFeed_whenTokenIsUnknown_returnsNotFound() throws Exception {
+                when(calendarFeedService.getFeed("nope")).thenThrow(new UserNotFoundException("Calendar not found"));
+
+                mockMvc.perform(get("/api/calendar/nope.ics"))
+                                .andExpect(status().isNotFound());
+        }
+
+        @Test
+        public void rotateToken_returnsFeedPath() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+                when(calendarFeedService.rotateToken(1L)).thenReturn("abc");
+
+                mockMvc.perform(post("/api/calendar/token").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.token").value("abc"))
+                                .andExpect(jsonPath("$.path").value("/api/calendar/abc.ics"));
+        }
+
+        @Test
+        public void rotateToken_withoutLogin_isRejected() throws Exception {
+                mockMvc.perform(post("/api/calendar/token"))
+                                .andExpect(status().is4xxClientError());
+
+                verifyNoInteractions(calendarFeedService);
+        }
+}
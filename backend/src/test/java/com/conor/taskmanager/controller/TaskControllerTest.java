@@ -1,6 +1,7 @@
 package com.conor.taskmanager.controller;
 
 import static org.hamcrest.Matchers.hasItems;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -9,44 +10,116 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.conor.taskmanager.exception.GlobalExceptionHandler;
 import com.conor.taskmanager.exception.TaskNotFoundException;
 import com.conor.taskmanager.exception.ForbiddenException;
+import com.conor.taskmanager.exception.PreconditionFailedException;
+import com.conor.taskmanager.exception.SyncTokenExpiredException;
 import com.conor.taskmanager.exception.UserNotFoundException;
+import com.conor.taskmanager.exception.ValidationException;
 import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskBatchOperation;
+import com.conor.taskmanager.model.TaskBatchRequest;
+import com.conor.taskmanager.model.TaskBatchResult;
+import com.conor.taskmanager.model.TaskChanges;
+import com.conor.taskmanager.model.TaskExportFormat;
+import com.conor.taskmanager.model.TaskFilter;
+import com.conor.taskmanager.model.TaskPage;
+import com.conor.taskmanager.model.TaskPatchRequest;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.model.TaskSearchPage;
+import com.conor.taskmanager.model.TaskSummary;
 import com.conor.taskmanager.model.Task.Priority;
 import com.conor.taskmanager.model.Task.Status;
 import com.conor.taskmanager.model.User;
 import com.conor.taskmanager.security.CustomUserDetails;
 import com.conor.taskmanager.security.JwtService;
+import com.conor.taskmanager.security.RevokedTokens;
 import com.conor.taskmanager.security.SecurityConfig;
+import com.conor.taskmanager.security.TokenVersionCache;
 import com.conor.taskmanager.security.CustomUserDetailsService;
+import com.conor.taskmanager.service.TaskArchiveService;
+import com.conor.taskmanager.service.TaskBatchService;
+import com.conor.taskmanager.service.TaskEventHub;
+import com.conor.taskmanager.service.TaskExportService;
 import com.conor.taskmanager.service.TaskService;
+import com.conor.taskmanager.service.TaskService.TaskListing;
+import com.conor.taskmanager.service.TaskSummaryService;
+import com.conor.taskmanager.service.TaskSyncService;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 @WebMvcTest(TaskController.class)
-@Import({ SecurityConfig.class, GlobalExceptionHandler.class })
+@Import({ SecurityConfig.class, GlobalExceptionHandler.class, TaskControllerTest.SynchronousAsyncConfig.class })
 public class TaskControllerTest {
 
+        // Run streaming bodies on the calling thread, so they don't race MockMvc's filter chain for the response
+        @TestConfiguration
+        static class SynchronousAsyncConfig implements WebMvcConfigurer {
+                @Override
+                public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                        configurer.setTaskExecutor(new TaskExecutorAdapter(new SyncTaskExecutor()));
+                }
+        }
+
         @Autowired
         private MockMvc mockMvc;
 
         @MockitoBean
         private TaskService taskService;
 
+        @MockitoBean
+        private TaskBatchService taskBatchService;
+
+        @MockitoBean
+        private TaskSummaryService taskSummaryService;
+
+        @MockitoBean
+        private TaskSyncService taskSyncService;
+
+        @MockitoBean
+        private TaskEventHub taskEventHub;
+
+        @MockitoBean
+        private TaskExportService taskExportService;
+
+        @MockitoBean
+        private TaskArchiveService taskArchiveService;
+
         @MockitoBean
         private JwtService jwtService;
 
+        @MockitoBean
+        private TokenVersionCache tokenVersionCache;
+
+        @MockitoBean
+        private RevokedTokens revokedTokens;
+
         @MockitoBean
         private CustomUserDetailsService userDetailsService;
 
@@ -66,14 +139,14 @@ public class TaskControllerTest {
         public void getTasks_whenUserExists_returnsTaskList() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
 
-                Task task1 = new Task(1, "Task 1", "Description for Task 1", Status.COMPLETED, Priority.MEDIUM,
-                                LocalDateTime.now().plusDays(1));
-                Task task2 = new Task(2, "Task 2", "Description for Task 2", Status.IN_PROGRESS, Priority.HIGH,
-                                LocalDateTime.now().plusDays(2));
-                List<Task> mockTasks = new ArrayList<>();
+                TaskResponse task1 = new TaskResponse(1L, 1L, "Task 1", "Description for Task 1", Status.COMPLETED,
+                                Priority.MEDIUM, LocalDateTime.now().plusDays(1), LocalDateTime.now(), null, 0L);
+                TaskResponse task2 = new TaskResponse(2L, 1L, "Task 2", "Description for Task 2", Status.IN_PROGRESS,
+                                Priority.HIGH, LocalDateTime.now().plusDays(2), LocalDateTime.now(), null, 0L);
+                List<TaskResponse> mockTasks = new ArrayList<>();
                 mockTasks.add(task1);
                 mockTasks.add(task2);
-                when(taskService.getTasksForUser(1L)).thenReturn(mockTasks);
+                when(taskService.getTaskListing(1L, TaskFilter.none())).thenReturn(new TaskListing(mockTasks, "abc-1"));
 
                 mockMvc.perform(get("/api/tasks").with(user(userDetails)))
                                 .andExpect(status().isOk())
@@ -84,11 +157,151 @@ public class TaskControllerTest {
                                 .andExpect(jsonPath("$[1].description").value("Description for Task 2"));
         }
 
+        @Test
+        public void getTasks_whenSmileIsAccepted_returnsSmileEncodedTasks() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskResponse task = new TaskResponse(1L, 1L, "Task 1", "Description for Task 1", Status.PENDING,
+                                Priority.LOW, null, LocalDateTime.now(), null, 0L);
+                when(taskService.getTaskListing(1L, TaskFilter.none())).thenReturn(new TaskListing(List.of(task), "abc-1"));
+
+                MvcResult result = mockMvc.perform(get("/api/tasks").accept("application/x-jackson-smile")
+                                .with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("application/x-jackson-smile"))
+                                .andExpect(header().stringValues("Vary", hasItems("Accept")))
+                                .andReturn();
+
+                TaskResponse[] tasks = SmileMapper.builder().build()
+                                .readValue(result.getResponse().getContentAsByteArray(), TaskResponse[].class);
+                assertEquals(1, tasks.length);
+                assertEquals("Task 1", tasks[0].title());
+        }
+
+        @Test
+        public void getTasks_whenCborIsAccepted_returnsCborEncodedTasks() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskService.getTaskListing(1L, TaskFilter.none())).thenReturn(new TaskListing(List.of(), "abc-1"));
+
+                mockMvc.perform(get("/api/tasks").accept(MediaType.APPLICATION_CBOR).with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        }
+
+        @Test
+        public void getTasks_returnsETagFromTaskListVersion() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskService.getTaskListETag(1L)).thenReturn("abc-3");
+                when(taskService.getTaskListing(1L, TaskFilter.none())).thenReturn(new TaskListing(List.of(), "abc-3"));
+
+                mockMvc.perform(get("/api/tasks").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"abc-3-json\""))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"));
+        }
+
+        @Test
+        public void getTasks_whenETagMatches_returnsNotModifiedWithoutLoadingTasks() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskService.getTaskListETag(1L)).thenReturn("abc-3");
+
+                mockMvc.perform(get("/api/tasks").header("If-None-Match", "\"abc-3-json\"").with(user(userDetails)))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", "\"abc-3-json\""))
+                                .andExpect(content().string(""));
+
+                verify(taskService, never()).getTaskListing(any(), any());
+        }
+
+        @Test
+        public void getTasks_whenETagIsStale_returnsTasks() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskService.getTaskListETag(1L)).thenReturn("abc-4");
+                when(taskService.getTaskListing(1L, TaskFilter.none())).thenReturn(new TaskListing(List.of(), "abc-4"));
+
+                mockMvc.perform(get("/api/tasks").header("If-None-Match", "\"abc-3-json\"").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"abc-4-json\""));
+        }
+
+        @Test
+        public void getTasks_whenListIsReadBehindCurrentVersion_tagsItWithTheVersionItWasReadAt() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskService.getTaskListETag(1L)).thenReturn("abc-4");
+                when(taskService.getTaskListing(1L, TaskFilter.none())).thenReturn(new TaskListing(List.of(), "abc-3"));
+
+                mockMvc.perform(get("/api/tasks").header("If-None-Match", "\"abc-2-json\"").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(header().stringValues("ETag", "\"abc-3-json\""));
+        }
+
+        @Test
+        public void getTasks_whenSmileIsRequestedWithJsonETag_returnsSmileTasks() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskService.getTaskListETag(1L)).thenReturn("abc-3");
+                when(taskService.getTaskListing(1L, TaskFilter.none())).thenReturn(new TaskListing(List.of(), "abc-3"));
+
+                mockMvc.perform(get("/api/tasks").accept("application/x-jackson-smile")
+                                .header("If-None-Match", "\"abc-3-json\"").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("application/x-jackson-smile"))
+                                .andExpect(header().string("ETag", "\"abc-3-smile\""));
+        }
+
+        @Test
+        public void getTasks_whenSmileETagMatches_returnsNotModified() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskService.getTaskListETag(1L)).thenReturn("abc-3");
+
+                mockMvc.perform(get("/api/tasks").accept("application/cbor;q=0.5, application/x-jackson-smile")
+                                .header("If-None-Match", "\"abc-3-smile\"").with(user(userDetails)))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", "\"abc-3-smile\""));
+
+                verify(taskService, never()).getTaskListing(any(), any());
+        }
+
+        @Test
+        public void getTasks_whenCborIsPreferred_tagsCborTasks() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskService.getTaskListETag(1L)).thenReturn("abc-3");
+                when(taskService.getTaskListing(1L, TaskFilter.none())).thenReturn(new TaskListing(List.of(), "abc-3"));
+
+                mockMvc.perform(get("/api/tasks").accept("application/json;q=0.9, application/cbor")
+                                .with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("application/cbor"))
+                                .andExpect(header().string("ETag", "\"abc-3-cbor\""));
+        }
+
+        @Test
+        public void getTasks_whenOverdueOnly_skipsETag() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskFilter filter = new TaskFilter(null, null, null, null, true, null);
+                when(taskService.getTasksForUser(1L, filter)).thenReturn(List.of());
+
+                mockMvc.perform(get("/api/tasks").param("overdue", "true").header("If-None-Match", "\"abc-3\"")
+                                .with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("ETag"));
+
+                verify(taskService, never()).getTaskListETag(any());
+        }
+
         @Test
         public void getTasks_whenUserDoesNotExist_returnsNotFound() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
 
-                when(taskService.getTasksForUser(1L))
+                when(taskService.getTaskListing(1L, TaskFilter.none()))
                                 .thenThrow(new UserNotFoundException("User not found"));
 
                 mockMvc.perform(get("/api/tasks").with(user(userDetails)))
@@ -96,26 +309,187 @@ public class TaskControllerTest {
                                 .andExpect(jsonPath("$.message").value("User not found"));
         }
 
+        @Test
+        public void getTasks_whenLimitIsGiven_returnsPageWithCursor() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskResponse task1 = new TaskResponse(1L, 1L, "Task 1", "Description for Task 1", Status.PENDING,
+                                Priority.LOW, LocalDateTime.now().plusDays(1), LocalDateTime.now(), null, 0L);
+                when(taskService.getTaskPage(1L, TaskFilter.none(), "abc", 1)).thenReturn(new TaskPage(List.of(task1), "next"));
+
+                mockMvc.perform(get("/api/tasks").param("limit", "1").param("cursor", "abc").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(1))
+                                .andExpect(jsonPath("$.items[0].title").value("Task 1"))
+                                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+                verify(taskService, never()).getTaskListing(any(), any());
+        }
+
+        @Test
+        public void getTasks_whenFiltersAreGiven_passesThemToService() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskFilter filter = new TaskFilter(Status.IN_PROGRESS, Priority.HIGH,
+                                LocalDateTime.of(2030, 1, 1, 0, 0), LocalDateTime.of(2030, 2, 1, 0, 0), true,
+                                TaskFilter.SortOrder.DUE_DATE_DESC);
+                when(taskService.getTasksForUser(1L, filter)).thenReturn(List.of());
+
+                mockMvc.perform(get("/api/tasks")
+                                .param("status", "IN_PROGRESS")
+                                .param("priority", "HIGH")
+                                .param("dueFrom", "2030-01-01T00:00:00")
+                                .param("dueTo", "2030-02-01T00:00:00")
+                                .param("overdue", "true")
+                                .param("sort", "DUE_DATE_DESC")
+                                .with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(0));
+
+                verify(taskService).getTasksForUser(1L, filter);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void getTasks_whenStreaming_writesTasksAsJsonArray() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskResponse task1 = new TaskResponse(1L, 1L, "Task 1", "Description for Task 1", Status.PENDING,
+                                Priority.LOW, LocalDateTime.of(2030, 1, 1, 9, 0), LocalDateTime.now(), null, 0L);
+                TaskResponse task2 = new TaskResponse(2L, 1L, "Task 2", "Description for Task 2", Status.COMPLETED,
+                                Priority.HIGH, null, LocalDateTime.now(), null, 0L);
+                doAnswer(invocation -> {
+                        Consumer<TaskResponse> consumer = invocation.getArgument(2);
+                        consumer.accept(task1);
+                        consumer.accept(task2);
+                        return null;
+                }).when(taskService).streamTasksForUser(eq(1L), eq(TaskFilter.none()), any(Consumer.class));
+
+                MvcResult result = mockMvc.perform(get("/api/tasks").param("stream", "true").with(user(userDetails)))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andExpect(jsonPath("$.length()").value(2))
+                                .andExpect(jsonPath("$[0].title").value("Task 1"))
+                                .andExpect(jsonPath("$[0].dueDate").value("2030-01-01T09:00:00"))
+                                .andExpect(jsonPath("$[1].title").value("Task 2"));
+
+                verify(taskService, never()).getTaskListing(any(), any());
+        }
+
+        @Test
+        public void getTasks_whenStreamingWithInvalidFilter_returnsBadRequestBeforeStreaming() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                doThrow(new ValidationException("dueFrom must be before dueTo"))
+                                .when(taskService).validateFilter(any());
+
+                mockMvc.perform(get("/api/tasks").param("stream", "true")
+                                .param("dueFrom", "2030-02-01T00:00:00")
+                                .param("dueTo", "2030-01-01T00:00:00")
+                                .with(user(userDetails)))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.errors[0]").value("dueFrom must be before dueTo"));
+
+                verify(taskService, never()).streamTasksForUser(any(), any(), any());
+        }
+
+        @Test
+        public void exportTasks_asCsv_streamsAttachmentFromService() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                doAnswer(invocation -> {
+                        OutputStream out = invocation.getArgument(3);
+                        out.write("id,title\n".getBytes(StandardCharsets.UTF_8));
+                        return null;
+                }).when(taskExportService).export(eq(1L), eq(TaskExportFormat.CSV), eq(40L), any());
+
+                MvcResult result = mockMvc.perform(get("/api/tasks/export").param("format", "csv").param("after", "40")
+                                .with(user(userDetails)))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                                .andExpect(header().string("Content-Disposition", "attachment; filename=\"tasks.csv\""))
+                                .andExpect(header().doesNotExist("Content-Encoding"))
+                                .andExpect(content().string("id,title\n"));
+        }
+
+        @Test
+        public void exportTasks_whenClientAcceptsGzip_compressesBody() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                doAnswer(invocation -> {
+                        OutputStream out = invocation.getArgument(3);
+                        out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+                        return null;
+                }).when(taskExportService).export(eq(1L), eq(TaskExportFormat.NDJSON), eq(null), any());
+
+                MvcResult result = mockMvc.perform(get("/api/tasks/export").header("Accept-Encoding", "gzip, deflate")
+                                .with(user(userDetails)))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                MvcResult response = mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                                .andExpect(header().string("Content-Encoding", "gzip"))
+                                .andReturn();
+
+                try (GZIPInputStream body = new GZIPInputStream(
+                                new ByteArrayInputStream(response.getResponse().getContentAsByteArray()))) {
+                        assertEquals("{\"id\":1}\n", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                }
+        }
+
+        @Test
+        public void exportTasks_whenFormatIsUnknown_returnsBadRequest() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                mockMvc.perform(get("/api/tasks/export").param("format", "xml").with(user(userDetails)))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.errors[0]").value("Format must be ndjson or csv"));
+
+                verifyNoInteractions(taskExportService);
+        }
+
+        @Test
+        public void getTasks_whenStatusIsUnknown_returnsBadRequest() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                mockMvc.perform(get("/api/tasks").param("status", "DONE").with(user(userDetails)))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(taskService);
+        }
+
         @Test
         public void getTask_whenTaskExists_returnsTask() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
 
-                Task mockTask = new Task(1, "Task 1", "Description for Task 1", Status.COMPLETED, Priority.MEDIUM,
-                                LocalDateTime.now().plusDays(1));
+                TaskResponse mockTask = new TaskResponse(1L, 1L, "Task 1", "Description for Task 1", Status.COMPLETED,
+                                Priority.MEDIUM, LocalDateTime.now().plusDays(1), LocalDateTime.now(), null, 0L);
 
-                when(taskService.getTaskById(1, 1L)).thenReturn(mockTask);
+                when(taskService.getTaskById(1L, 1L)).thenReturn(mockTask);
 
                 mockMvc.perform(get("/api/tasks/1").with(user(userDetails)))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.title").value("Task 1"))
-                                .andExpect(jsonPath("$.description").value("Description for Task 1"));
+                                .andExpect(jsonPath("$.description").value("Description for Task 1"))
+                                .andExpect(jsonPath("$.userId").value(1))
+                                .andExpect(jsonPath("$.user").doesNotExist());
         }
 
         @Test
         public void getTask_whenTaskDoesNotExist_returnsNotFound() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
 
-                when(taskService.getTaskById(1, 1L))
+                when(taskService.getTaskById(1L, 1L))
                                 .thenThrow(new TaskNotFoundException("Task not found"));
 
                 mockMvc.perform(get("/api/tasks/1").with(user(userDetails)))
@@ -127,7 +501,7 @@ public class TaskControllerTest {
         public void getTask_whenUnauthorised_returnsForbidden() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
 
-                when(taskService.getTaskById(1, 1L))
+                when(taskService.getTaskById(1L, 1L))
                                 .thenThrow(new ForbiddenException("You do not have permission to access this task"));
 
                 mockMvc.perform(get("/api/tasks/1").with(user(userDetails)))
@@ -212,8 +586,8 @@ public class TaskControllerTest {
 
                 Task newTask = new Task(null, "New Task", "Task description", Status.COMPLETED, Priority.MEDIUM,
                                 LocalDateTime.now().plusDays(1));
-                Task savedTask = new Task(1, "New Task", "Task description", Status.COMPLETED, Priority.MEDIUM,
-                                LocalDateTime.now().plusDays(1));
+                TaskResponse savedTask = new TaskResponse(1L, 1L, "New Task", "Task description", Status.COMPLETED,
+                                Priority.MEDIUM, LocalDateTime.now().plusDays(1), LocalDateTime.now(), null, 0L);
 
                 when(taskService.createTask(any(Task.class), eq(1L))).thenReturn(savedTask);
 
@@ -232,13 +606,14 @@ public class TaskControllerTest {
         public void updateTask_whenAuthorised_updatesAndReturnsTask() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "testUser");
 
-                int taskId = 1;
+                long taskId = 1L;
                 Task updatedTask = new Task(null, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH,
                                 LocalDateTime.now().plusDays(2));
-                Task savedTask = new Task(taskId, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH,
-                                LocalDateTime.now().plusDays(2));
+                TaskResponse savedTask = new TaskResponse(taskId, 1L, "New Title", "New Description",
+                                Status.IN_PROGRESS, Priority.HIGH, LocalDateTime.now().plusDays(2), LocalDateTime.now(),
+                                null, 0L);
 
-                when(taskService.updateTask(eq(taskId), any(Task.class), eq(1L))).thenReturn(savedTask);
+                when(taskService.updateTask(eq(taskId), any(Task.class), eq(1L), isNull())).thenReturn(savedTask);
 
                 mockMvc.perform(put("/api/tasks/" + taskId)
                                 .with(user(userDetails))
@@ -248,19 +623,186 @@ public class TaskControllerTest {
                                 .andExpect(jsonPath("$.title").value("New Title"))
                                 .andExpect(jsonPath("$.description").value("New Description"));
 
-                verify(taskService).updateTask(eq(taskId), any(Task.class), eq(1L));
+                verify(taskService).updateTask(eq(taskId), any(Task.class), eq(1L), isNull());
+        }
+
+        @Test
+        public void updateTask_whenIfMatchIsSent_passesVersionAndReturnsNewETag() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "testUser");
+
+                Task updatedTask = new Task(null, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH, null);
+                TaskResponse savedTask = new TaskResponse(1L, 1L, "New Title", "New Description",
+                                Status.IN_PROGRESS, Priority.HIGH, null, LocalDateTime.now(), null, 4L);
+
+                when(taskService.updateTask(eq(1L), any(Task.class), eq(1L), eq(3L))).thenReturn(savedTask);
+
+                mockMvc.perform(put("/api/tasks/1")
+                                .with(user(userDetails))
+                                .header("If-Match", "\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updatedTask)))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"4\""));
+        }
+
+        @Test
+        public void updateTask_whenVersionIsStale_returnsPreconditionFailed() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "testUser");
+
+                Task updatedTask = new Task(null, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH, null);
+
+                when(taskService.updateTask(eq(1L), any(Task.class), eq(1L), eq(2L)))
+                                .thenThrow(new PreconditionFailedException("Task has been modified since it was read"));
+
+                mockMvc.perform(put("/api/tasks/1")
+                                .with(user(userDetails))
+                                .header("If-Match", "\"2\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updatedTask)))
+                                .andExpect(status().isPreconditionFailed())
+                                .andExpect(jsonPath("$.message").value("Task has been modified since it was read"));
+        }
+
+        @Test
+        public void updateTask_whenConcurrentWriteWins_returnsPreconditionFailed() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "testUser");
+
+                Task updatedTask = new Task(null, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH, null);
+
+                when(taskService.updateTask(eq(1L), any(Task.class), eq(1L), isNull()))
+                                .thenThrow(new ObjectOptimisticLockingFailureException(Task.class, 1L));
+
+                mockMvc.perform(put("/api/tasks/1")
+                                .with(user(userDetails))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updatedTask)))
+                                .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        public void deleteTask_whenIfMatchIsWeak_returnsPreconditionFailed() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                mockMvc.perform(delete("/api/tasks/1")
+                                .with(user(userDetails))
+                                .header("If-Match", "W/\"3\""))
+                                .andExpect(status().isPreconditionFailed());
+
+                verifyNoInteractions(taskService);
+        }
+
+        @Test
+        public void getTaskChanges_whenTokenHasExpired_returnsGone() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskSyncService.getChanges(1L, "old"))
+                                .thenThrow(new SyncTokenExpiredException("Sync token has expired; fetch the full task list again"));
+
+                mockMvc.perform(get("/api/tasks/changes").param("since", "old").with(user(userDetails)))
+                                .andExpect(status().isGone());
+        }
+
+        @Test
+        public void getTaskChanges_returnsChangesAndNextToken() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskResponse changed = new TaskResponse(3L, 1L, "Task", "Description", Status.PENDING, Priority.LOW,
+                                null, LocalDateTime.now(), null, 2L);
+                when(taskSyncService.getChanges(1L, "abc")).thenReturn(new TaskChanges(List.of(changed), List.of(4L), "def"));
+
+                mockMvc.perform(get("/api/tasks/changes").param("since", "abc").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.changed[0].id").value(3))
+                                .andExpect(jsonPath("$.deleted[0]").value(4))
+                                .andExpect(jsonPath("$.nextToken").value("def"));
+        }
+
+        @Test
+        public void streamTaskEvents_subscribesCurrentUserAndStartsEventStream() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskEventHub.subscribe(1L)).thenReturn(new SseEmitter());
+
+                mockMvc.perform(get("/api/tasks/events").accept(MediaType.TEXT_EVENT_STREAM).with(user(userDetails)))
+                                .andExpect(request().asyncStarted())
+                                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM));
+
+                verify(taskEventHub).subscribe(1L);
+        }
+
+        @Test
+        public void getArchivedTasks_returnsPageFromArchive() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskResponse archived = new TaskResponse(9L, 1L, "Old", "Description", Status.COMPLETED, Priority.LOW,
+                                null, LocalDateTime.now().minusYears(1), null, 3L);
+                when(taskArchiveService.getArchivedTasks(1L, "12", 1)).thenReturn(new TaskPage(List.of(archived), "9"));
+
+                mockMvc.perform(get("/api/tasks/archive").param("cursor", "12").param("limit", "1")
+                                .with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].id").value(9))
+                                .andExpect(jsonPath("$.nextCursor").value("9"));
+        }
+
+        @Test
+        public void getTaskSummary_returnsCounts() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                when(taskSummaryService.getSummary(1L)).thenReturn(new TaskSummary(3,
+                                Map.of(Status.PENDING, 2L, Status.IN_PROGRESS, 0L, Status.COMPLETED, 1L),
+                                Map.of(Priority.LOW, 3L, Priority.MEDIUM, 0L, Priority.HIGH, 0L), 1, 2));
+
+                mockMvc.perform(get("/api/tasks/summary").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.total").value(3))
+                                .andExpect(jsonPath("$.byStatus.PENDING").value(2))
+                                .andExpect(jsonPath("$.overdue").value(1))
+                                .andExpect(jsonPath("$.dueToday").value(2));
+        }
+
+        @Test
+        public void searchTasks_returnsRankedPage() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskResponse match = new TaskResponse(3L, 1L, "Invoice client", "Send invoice", Status.PENDING,
+                                Priority.LOW, null, LocalDateTime.now(), null, 0L);
+                when(taskService.searchTasks(1L, "invoice", 0, 20)).thenReturn(new TaskSearchPage(List.of(match), 20));
+
+                mockMvc.perform(get("/api/tasks/search").param("q", "invoice").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].id").value(3))
+                                .andExpect(jsonPath("$.nextOffset").value(20));
+        }
+
+        @Test
+        public void getTask_whenETagMatches_returnsNotModified() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskResponse task = new TaskResponse(1L, 1L, "Task", "Description", Status.PENDING, Priority.LOW,
+                                null, LocalDateTime.now(), null, 5L);
+                when(taskService.getTaskById(1L, 1L)).thenReturn(task);
+
+                mockMvc.perform(get("/api/tasks/1").with(user(userDetails)))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"5\""));
+
+                mockMvc.perform(get("/api/tasks/1")
+                                .with(user(userDetails))
+                                .header("If-None-Match", "\"5\""))
+                                .andExpect(status().isNotModified());
         }
 
         @Test
         public void updateTask_whenTaskNotFound_returnsNotFound() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
 
-                int taskId = 1;
+                long taskId = 1L;
                 Task updatedTask = new Task(null, "Updated Title", "Updated Description", Status.IN_PROGRESS,
                                 Priority.HIGH,
                                 LocalDateTime.now().plusDays(5));
 
-                when(taskService.updateTask(eq(taskId), any(Task.class), eq(1L)))
+                when(taskService.updateTask(eq(taskId), any(Task.class), eq(1L), isNull()))
                                 .thenThrow(new TaskNotFoundException("Task not found"));
 
                 mockMvc.perform(put("/api/tasks/" + taskId)
@@ -275,11 +817,11 @@ public class TaskControllerTest {
         public void updateTask_whenUnauthorised_returnsForbidden() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "testUser");
 
-                int taskId = 1;
+                long taskId = 1L;
                 Task updatedTask = new Task(null, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH,
                                 LocalDateTime.now().plusDays(2));
 
-                when(taskService.updateTask(eq(taskId), any(Task.class), eq(1L)))
+                when(taskService.updateTask(eq(taskId), any(Task.class), eq(1L), isNull()))
                                 .thenThrow(new ForbiddenException("You do not have permission to update this task"));
 
                 mockMvc.perform(put("/api/tasks/" + taskId)
@@ -291,17 +833,71 @@ public class TaskControllerTest {
                                                 .value("You do not have permission to update this task"));
         }
 
+        @Test
+        public void patchTask_whenOnlyStatusIsSent_passesJustThatField() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                TaskResponse patched = new TaskResponse(1L, 1L, "Task 1", "Description for Task 1", Status.COMPLETED,
+                                Priority.LOW, null, LocalDateTime.now(), null, 0L);
+                when(taskService.patchTask(eq(1L), any(TaskPatchRequest.class), eq(1L), isNull())).thenReturn(patched);
+
+                mockMvc.perform(patch("/api/tasks/1")
+                                .with(user(userDetails))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"status\":\"COMPLETED\"}"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.status").value("COMPLETED"));
+
+                ArgumentCaptor<TaskPatchRequest> captor = ArgumentCaptor.forClass(TaskPatchRequest.class);
+                verify(taskService).patchTask(eq(1L), captor.capture(), eq(1L), isNull());
+                assertEquals(Status.COMPLETED, captor.getValue().getStatus());
+                assertNull(captor.getValue().getTitle());
+                assertFalse(captor.getValue().hasDueDate());
+        }
+
+        @Test
+        public void patchTask_whenDueDateIsNull_marksItForClearing() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+                TaskResponse patched = new TaskResponse(1L, 1L, "Task", "Description", Status.PENDING, Priority.LOW,
+                                null, LocalDateTime.now(), null, 1L);
+                when(taskService.patchTask(eq(1L), any(TaskPatchRequest.class), eq(1L), isNull())).thenReturn(patched);
+
+                mockMvc.perform(patch("/api/tasks/1")
+                                .with(user(userDetails))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"dueDate\":null}"))
+                                .andExpect(status().isOk());
+
+                ArgumentCaptor<TaskPatchRequest> captor = ArgumentCaptor.forClass(TaskPatchRequest.class);
+                verify(taskService).patchTask(eq(1L), captor.capture(), eq(1L), isNull());
+                assertTrue(captor.getValue().hasDueDate());
+                assertNull(captor.getValue().getDueDate());
+        }
+
+        @Test
+        public void patchTask_whenTitleIsBlank_returnsBadRequest() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                mockMvc.perform(patch("/api/tasks/1")
+                                .with(user(userDetails))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"title\":\"   \"}"))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(taskService);
+        }
+
         @Test
         public void deleteTask_whenAuthorised_deletesTask() throws Exception {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
 
-                doNothing().when(taskService).deleteTask(1, 1L);
+                doNothing().when(taskService).deleteTask(1L, 1L, null);
 
                 mockMvc.perform(delete("/api/tasks/1").with(user(userDetails)))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.message").value("Task deleted successfully"));
 
-                verify(taskService).deleteTask(1, 1L);
+                verify(taskService).deleteTask(1L, 1L, null);
         }
 
         @Test
@@ -309,10 +905,68 @@ public class TaskControllerTest {
                 CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
 
                 doThrow(new TaskNotFoundException("Task not found"))
-                                .when(taskService).deleteTask(1, 1L);
+                                .when(taskService).deleteTask(1L, 1L, null);
 
                 mockMvc.perform(delete("/api/tasks/1").with(user(userDetails)))
                                 .andExpect(status().isNotFound())
                                 .andExpect(jsonPath("$.message").value("Task not found"));
         }
-}
\ No newline at end of file
+
+        @Test
+        public void applyBatch_returnsResultPerOperation() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                Task newTask = new Task(null, "New Task", "Task description", Status.PENDING, Priority.LOW, null);
+                TaskBatchRequest batch = new TaskBatchRequest(List.of(
+                                new TaskBatchOperation(TaskBatchOperation.Type.CREATE, null, newTask),
+                                new TaskBatchOperation(TaskBatchOperation.Type.DELETE, 9L, null)));
+                TaskResponse created = new TaskResponse(3L, 1L, "New Task", "Task description", Status.PENDING,
+                                Priority.LOW, null, LocalDateTime.now(), null, 0L);
+                when(taskBatchService.applyBatch(any(), eq(1L))).thenReturn(List.of(
+                                TaskBatchResult.success(0, 201, created),
+                                TaskBatchResult.failure(1, 404, "Task not found")));
+
+                mockMvc.perform(post("/api/tasks/batch")
+                                .with(user(userDetails))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(batch)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(2))
+                                .andExpect(jsonPath("$[0].status").value(201))
+                                .andExpect(jsonPath("$[0].task.id").value(3))
+                                .andExpect(jsonPath("$[0].message").doesNotExist())
+                                .andExpect(jsonPath("$[1].status").value(404))
+                                .andExpect(jsonPath("$[1].message").value("Task not found"))
+                                .andExpect(jsonPath("$[1].task").doesNotExist());
+        }
+
+        @Test
+        public void applyBatch_whenOperationTaskIsInvalid_returnsBadRequest() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                Task invalidTask = new Task(null, "", "Task description", Status.PENDING, Priority.LOW, null);
+                TaskBatchRequest batch = new TaskBatchRequest(List.of(
+                                new TaskBatchOperation(TaskBatchOperation.Type.CREATE, null, invalidTask)));
+
+                mockMvc.perform(post("/api/tasks/batch")
+                                .with(user(userDetails))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(batch)))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(taskBatchService);
+        }
+
+        @Test
+        public void applyBatch_whenEmpty_returnsBadRequest() throws Exception {
+                CustomUserDetails userDetails = createTestUserDetails(1L, "1@1.com");
+
+                mockMvc.perform(post("/api/tasks/batch")
+                                .with(user(userDetails))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"operations\":[]}"))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(taskBatchService);
+        }
+}
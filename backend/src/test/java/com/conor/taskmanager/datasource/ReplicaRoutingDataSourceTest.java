@@ -0,0 +1,225 @@
+package com.conor.taskmanager.datasource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.Cookie;
+
+// Two embedded databases stand in for the primary and a replica; each names itself
+// in a one-row table, so a query shows where it was routed
+public class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private RecentWriters recentWriters;
+    private ReplicaRoutingDataSource routingDataSource;
+    private ReplicaLagMonitor monitor;
+    private JdbcClient jdbcClient;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        recentWriters = new RecentWriters(2000, 1000);
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), recentWriters);
+        monitor = new ReplicaLagMonitor(primary, routingDataSource, 2000);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcClient = JdbcClient.create(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    // Starts a request from the client carrying the given cookies and returns its response
+    private static MockHttpServletResponse request(Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (cookies.length > 0) {
+            request.setCookies(cookies);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcClient client = JdbcClient.create(database);
+        client.sql("CREATE TABLE node (name VARCHAR(20))").update();
+        client.sql("INSERT INTO node (name) VALUES (:name)").param("name", name).update();
+        client.sql("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP(6) NOT NULL)").update();
+        client.sql("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP(6))").update();
+        return database;
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> jdbcClient.sql("SELECT name FROM node").query(String.class).single());
+    }
+
+    private LocalDateTime heartbeat(DataSource dataSource) {
+        return JdbcClient.create(dataSource).sql("SELECT beat_at FROM replica_heartbeat WHERE id = 1")
+                .query(LocalDateTime.class).single();
+    }
+
+    private void setHeartbeat(DataSource dataSource, LocalDateTime beatAt) {
+        JdbcClient.create(dataSource).sql("UPDATE replica_heartbeat SET beat_at = :beatAt WHERE id = 1")
+                .param("beatAt", beatAt)
+                .update();
+    }
+
+    // The primary's clock, which both ends of the lag are taken from
+    private LocalDateTime primaryNow() {
+        return JdbcClient.create(primary).sql("SELECT CURRENT_TIMESTAMP(6)").query(LocalDateTime.class).single();
+    }
+
+    @Test
+    void readOnlyTransaction_withReplicaCaughtUp_readsReplica() {
+        monitor.checkReplicaLag();
+
+        assertEquals("replica", readOnlyNode());
+    }
+
+    @Test
+    void readWriteTransactionAndNonTransactionalQuery_usePrimary() {
+        monitor.checkReplicaLag();
+
+        assertEquals("primary",
+                readWrite.execute(status -> jdbcClient.sql("SELECT name FROM node").query(String.class).single()));
+        assertEquals("primary", jdbcClient.sql("SELECT name FROM node").query(String.class).single());
+    }
+
+    @Test
+    void readOnlyTransaction_beforeFirstLagCheck_readsPrimary() {
+        assertEquals("primary", readOnlyNode());
+    }
+
+    @Test
+    void checkReplicaLag_whenReplicaFallsBehindAndCatchesUp_movesReadsAwayAndBack() {
+        setHeartbeat(replica, primaryNow().minusSeconds(10));
+        monitor.checkReplicaLag();
+        assertEquals("primary", readOnlyNode());
+
+        // The heartbeat written to the primary reaches the replica
+        setHeartbeat(replica, heartbeat(primary));
+        monitor.checkReplicaLag();
+        assertEquals("replica", readOnlyNode());
+    }
+
+    @Test
+    void checkReplicaLag_writesHeartbeatToPrimaryWithItsOwnClock() {
+        setHeartbeat(primary, LocalDateTime.of(2000, 1, 1, 0, 0));
+        LocalDateTime before = primaryNow();
+
+        monitor.checkReplicaLag();
+
+        LocalDateTime beatAt = heartbeat(primary);
+        assertFalse(beatAt.isBefore(before));
+        assertFalse(beatAt.isAfter(primaryNow()));
+    }
+
+    @Test
+    void checkReplicaLag_whenReplicaIsDown_readsPrimary() {
+        monitor.checkReplicaLag();
+        replica.shutdown();
+
+        monitor.checkReplicaLag();
+
+        assertEquals("primary", readOnlyNode());
+    }
+
+    @Test
+    void readOnlyTransaction_afterClientsOwnWrite_readsPrimaryWhileOthersReadReplica() {
+        monitor.checkReplicaLag();
+        MockHttpServletResponse response = request();
+
+        readWrite.executeWithoutResult(status -> jdbcClient.sql("UPDATE node SET name = 'primary'").update());
+
+        // Later in the same request, and in the client's next request to any instance
+        assertEquals("primary", readOnlyNode());
+        Cookie cookie = response.getCookie(RecentWriters.COOKIE_NAME);
+        assertNotNull(cookie);
+        request(cookie);
+        assertEquals("primary", readOnlyNode());
+
+        request();
+        assertEquals("replica", readOnlyNode());
+    }
+
+    @Test
+    void readWriteTransaction_whenRolledBack_doesNotHoldClientToPrimary() {
+        monitor.checkReplicaLag();
+        MockHttpServletResponse response = request();
+
+        readWrite.executeWithoutResult(status -> {
+            jdbcClient.sql("UPDATE node SET name = 'primary'").update();
+            status.setRollbackOnly();
+        });
+
+        assertNull(response.getCookie(RecentWriters.COOKIE_NAME));
+        assertEquals("replica", readOnlyNode());
+    }
+
+    @Test
+    void readOnlyTransaction_withoutAuthenticatedUser_readsReplica() {
+        monitor.checkReplicaLag();
+
+        // A calendar app polling a feed, then a scheduled job outside any request
+        request();
+        assertEquals("replica", readOnlyNode());
+        RequestContextHolder.resetRequestAttributes();
+        assertEquals("replica", readOnlyNode());
+    }
+
+    @Test
+    void recordWrite_setsCookieThatExpiresOnceReplicasMustHaveCaughtUp() {
+        MockHttpServletResponse response = request();
+
+        recentWriters.recordWrite();
+        recentWriters.recordWrite();
+
+        assertEquals(1, response.getHeaders("Set-Cookie").size());
+        Cookie cookie = response.getCookie(RecentWriters.COOKIE_NAME);
+        assertEquals(3, cookie.getMaxAge());
+        assertEquals("/api", cookie.getPath());
+        assertTrue(cookie.isHttpOnly());
+    }
+
+    @Test
+    void recordWrite_outsideRequest_holdsNoOneToPrimary() {
+        recentWriters.recordWrite();
+
+        assertFalse(recentWriters.wroteRecently());
+    }
+}
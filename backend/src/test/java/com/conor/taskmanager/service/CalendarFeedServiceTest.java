@@ -0,0 +1,170 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.exception.UserNotFoundException;
+import com.conor.taskmanager.model.Task.Priority;
+import com.conor.taskmanager.model.Task.Status;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.model.User;
+import com.conor.taskmanager.repository.TaskListVersionRepository;
+import com.conor.taskmanager.repository.TaskListVersionRepository.TaskListVersion;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+import com.conor.taskmanager.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class CalendarFeedServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserLookupService userLookupService;
+
+    @Mock
+    private TaskQueryRepository taskQueryRepository;
+
+    @Mock
+    private TaskListVersionRepository taskListVersionRepository;
+
+    private CalendarFeedService calendarFeedService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-03-31T12:00:00Z"), ZoneOffset.UTC);
+        calendarFeedService = new CalendarFeedService(userRepository, userLookupService, taskQueryRepository,
+                new TaskListVersions(taskListVersionRepository, clock), 30, 1000, 100, clock);
+        lenient().when(taskListVersionRepository.find(1L)).thenReturn(new TaskListVersion(0, null));
+    }
+
+    private static TaskResponse task(long id, String title, String description) {
+        return new TaskResponse(id, 1L, title, description, Status.PENDING, Priority.HIGH,
+                LocalDateTime.of(2026, 4, 2, 9, 30), LocalDateTime.of(2026, 3, 1, 8, 0), null, 4L);
+    }
+
+    private static String body(CalendarFeedService.CalendarFeed feed) {
+        return new String(feed.body(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void getFeed_rendersOpenTasksFromWindowStartAsEvents() {
+        when(userRepository.findIdByCalendarToken("secret")).thenReturn(Optional.of(1L));
+        when(taskQueryRepository.findOpenDueFrom(1L, LocalDateTime.of(2026, 3, 1, 0, 0), 1000))
+                .thenReturn(List.of(task(7, "Pay rent; today, really", "Line one\nline two")));
+
+        String ics = body(calendarFeedService.getFeed("secret"));
+
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+        assertTrue(ics.contains("BEGIN:VEVENT\r\nUID:task-7@taskmanager\r\nDTSTAMP:20260331T120000Z\r\n"
+                + "DTSTART:20260402T093000\r\nSEQUENCE:4\r\n"));
+        assertTrue(ics.contains("SUMMARY:Pay rent\\; today\\, really\r\n"));
+        assertTrue(ics.contains("DESCRIPTION:Line one\\nline two\r\n"));
+        assertTrue(ics.contains("PRIORITY:1\r\n"));
+        assertTrue(ics.endsWith("END:VEVENT\r\nEND:VCALENDAR\r\n"));
+    }
+
+    @Test
+    void getFeed_foldsLongLinesAtSeventyFiveOctetsWithoutSplittingCharacters() {
+        when(userRepository.findIdByCalendarToken("secret")).thenReturn(Optional.of(1L));
+        when(taskQueryRepository.findOpenDueFrom(eq(1L), any(), anyInt()))
+                .thenReturn(List.of(task(7, "é".repeat(60), null)));
+
+        String ics = body(calendarFeedService.getFeed("secret"));
+
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        // Unfolding restores the original line
+        assertTrue(ics.replace("\r\n ", "").contains("SUMMARY:" + "é".repeat(60) + "\r\n"));
+        assertFalse(ics.contains("DESCRIPTION"));
+    }
+
+    @Test
+    void getFeed_servesCachedBytesUntilTaskListChanges() {
+        when(userRepository.findIdByCalendarToken("secret")).thenReturn(Optional.of(1L));
+        when(taskQueryRepository.findOpenDueFrom(eq(1L), any(), anyInt())).thenReturn(List.of(task(7, "A", null)));
+        // A task write lands between the second and third request
+        when(taskListVersionRepository.find(1L)).thenReturn(
+                new TaskListVersion(3, LocalDateTime.of(2026, 3, 31, 9, 0)),
+                new TaskListVersion(3, LocalDateTime.of(2026, 3, 31, 9, 0)),
+                new TaskListVersion(4, LocalDateTime.of(2026, 3, 31, 11, 0)));
+
+        CalendarFeedService.CalendarFeed first = calendarFeedService.getFeed("secret");
+        CalendarFeedService.CalendarFeed second = calendarFeedService.getFeed("secret");
+        CalendarFeedService.CalendarFeed third = calendarFeedService.getFeed("secret");
+
+        assertSame(first, second);
+        assertNotEquals(first.eTag(), third.eTag());
+        verify(taskQueryRepository, times(2)).findOpenDueFrom(eq(1L), any(), anyInt());
+    }
+
+    @Test
+    void getFeed_isTaggedWithTheStoredVersionSoEveryInstanceAgrees() {
+        when(userRepository.findIdByCalendarToken("secret")).thenReturn(Optional.of(1L));
+        when(taskListVersionRepository.find(1L))
+                .thenReturn(new TaskListVersion(3, LocalDateTime.of(2026, 3, 31, 9, 0, 0, 500_000)));
+
+        CalendarFeedService.CalendarFeed feed = calendarFeedService.getFeed("secret");
+
+        assertEquals("v3-2026-03-01", feed.eTag());
+        // When the version last changed, not when this instance happened to render it
+        assertEquals(Instant.parse("2026-03-31T09:00:00.0005Z"), feed.lastModified());
+    }
+
+    @Test
+    void getFeed_whenListChangedBeforeToday_isLastModifiedWhenTheWindowMoved() {
+        when(userRepository.findIdByCalendarToken("secret")).thenReturn(Optional.of(1L));
+        when(taskListVersionRepository.find(1L))
+                .thenReturn(new TaskListVersion(3, LocalDateTime.of(2026, 3, 20, 9, 0)));
+
+        assertEquals(Instant.parse("2026-03-31T00:00:00Z"), calendarFeedService.getFeed("secret").lastModified());
+    }
+
+    @Test
+    void getFeed_whenListChangedOnAClockThatRunsAhead_isNotLastModifiedInTheFuture() {
+        when(userRepository.findIdByCalendarToken("secret")).thenReturn(Optional.of(1L));
+        when(taskListVersionRepository.find(1L))
+                .thenReturn(new TaskListVersion(3, LocalDateTime.of(2026, 3, 31, 12, 0, 5)));
+
+        assertEquals(Instant.parse("2026-03-31T12:00:00Z"), calendarFeedService.getFeed("secret").lastModified());
+    }
+
+    @Test
+    void getFeed_whenTokenIsUnknown_throwsNotFound() {
+        when(userRepository.findIdByCalendarToken("nope")).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> calendarFeedService.getFeed("nope"));
+        verifyNoInteractions(taskQueryRepository);
+    }
+
+    @Test
+    void rotateToken_replacesTokenWithNewRandomValue() {
+        User user = new User();
+        user.setCalendarToken("old");
+        when(userLookupService.getUserById(1L)).thenReturn(user);
+
+        String token = calendarFeedService.rotateToken(1L);
+
+        assertEquals(token, user.getCalendarToken());
+        assertNotEquals("old", token);
+        assertEquals(43, token.length());
+    }
+}
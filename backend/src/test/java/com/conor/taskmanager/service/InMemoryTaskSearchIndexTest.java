@@ -0,0 +1,115 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.model.Task.Priority;
+import com.conor.taskmanager.model.Task.Status;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryTaskSearchIndexTest {
+
+    @Mock
+    private TaskQueryRepository taskQueryRepository;
+
+    private InMemoryTaskSearchIndex index;
+    private final Map<Long, TaskResponse> rows = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryTaskSearchIndex(taskQueryRepository);
+        lenient().when(taskQueryRepository.findAllById(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+        });
+    }
+
+    private void add(long id, Long userId, String title, String description) {
+        TaskResponse task = new TaskResponse(id, userId, title, description, Status.PENDING, Priority.LOW,
+                null, LocalDateTime.now(), null, 0L);
+        rows.put(id, task);
+        index.index(task);
+    }
+
+    private List<Long> search(Long userId, String query) {
+        return index.search(userId, TaskSearchTerms.parseQuery(query), 0, 10).stream()
+                .map(TaskResponse::id)
+                .toList();
+    }
+
+    @Test
+    void search_ranksTasksWithMoreOccurrencesFirst() {
+        add(1, 1L, "Pay rent", "Transfer before the first");
+        add(2, 1L, "Invoice client", "Send invoice and chase the invoice next week");
+        add(3, 1L, "Invoice archive", "File last year's paperwork");
+
+        assertEquals(List.of(2L, 3L), search(1L, "invoice"));
+    }
+
+    @Test
+    void search_requiresEveryTermAndMatchesPrefixes() {
+        add(1, 1L, "Book dentist", "Call the surgery");
+        add(2, 1L, "Book flights", "Holiday in March");
+
+        assertEquals(List.of(2L), search(1L, "boo hol"));
+        assertEquals(List.of(), search(1L, "book train"));
+    }
+
+    @Test
+    void search_onlyReturnsTheCallersTasks() {
+        add(1, 1L, "Quarterly report", "Draft");
+        add(2, 2L, "Quarterly report", "Draft");
+
+        assertEquals(List.of(1L), search(1L, "quarterly"));
+        assertEquals(List.of(2L), search(2L, "quarterly"));
+        assertEquals(List.of(), search(3L, "quarterly"));
+    }
+
+    @Test
+    void index_whenTaskIsRewritten_replacesItsOldWords() {
+        add(1, 1L, "Water plants", "Kitchen");
+        add(1, 1L, "Feed cat", "Kitchen");
+
+        assertEquals(List.of(), search(1L, "water"));
+        assertEquals(List.of(1L), search(1L, "feed"));
+    }
+
+    @Test
+    void remove_dropsTasksFromResults() {
+        add(1, 1L, "Renew passport", "Photos needed");
+        add(2, 1L, "Renew insurance", "Compare quotes");
+
+        index.remove(List.of(1L));
+
+        assertEquals(List.of(2L), search(1L, "renew"));
+    }
+
+    @Test
+    void rebuild_indexesEveryExistingTask() {
+        TaskResponse task = new TaskResponse(5L, 1L, "Service boiler", "Annual check", Status.PENDING,
+                Priority.LOW, null, LocalDateTime.now(), null, 0L);
+        rows.put(5L, task);
+        when(taskQueryRepository.streamEveryTask()).thenReturn(Stream.of(task));
+
+        index.rebuild();
+
+        assertEquals(List.of(5L), search(1L, "boiler"));
+    }
+}
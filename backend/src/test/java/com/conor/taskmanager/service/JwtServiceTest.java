@@ -1,16 +1,27 @@
 package com.conor.taskmanager.service;
 
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import com.conor.taskmanager.model.User;
 import com.conor.taskmanager.security.CustomUserDetails;
 import com.conor.taskmanager.security.JwtService;
+import com.conor.taskmanager.security.VerifiedToken;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,14 +34,37 @@ class JwtServiceTest {
 
     @BeforeEach
     void setUp() {
-        jwtService = new JwtService();
-        ReflectionTestUtils.setField(jwtService, "secret", testSecret);
+        jwtService = new JwtService(testSecret, 100);
+    }
+
+    // A clock the test can move forward
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-03-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
     }
 
     @Test
     void testGenerateToken_ShouldCreateValidToken() {
         Long userid = 1L;
-        String token = jwtService.generateToken(userid, "testuser");
+        String token = jwtService.generateToken(userid, "testuser", "user", 0L);
 
         assertNotNull(token);
         assertFalse(token.isEmpty());
@@ -40,7 +74,7 @@ class JwtServiceTest {
     @Test
     void testExtractUserId_ShouldReturnCorrectUserId() {
         Long userid = 1L;
-        String token = jwtService.generateToken(userid, "testuser");
+        String token = jwtService.generateToken(userid, "testuser", "user", 0L);
 
         Long extractedId = jwtService.extractUserId(token);
 
@@ -50,7 +84,7 @@ class JwtServiceTest {
     @Test
     void testExtractExpiration_ShouldReturnFutureDate() {
         Long userid = 1L;
-        String token = jwtService.generateToken(userid, "testuser");
+        String token = jwtService.generateToken(userid, "testuser", "user", 0L);
 
         Instant expiration = jwtService.extractExpiration(token);
 
@@ -63,7 +97,7 @@ class JwtServiceTest {
         Long userid = 1L;
         Instant beforeGeneration = Instant.now();
 
-        String token = jwtService.generateToken(userid, "testuser");
+        String token = jwtService.generateToken(userid, "testuser", "user", 0L);
         Instant expiration = jwtService.extractExpiration(token);
 
         long expectedExpiration = beforeGeneration.plusSeconds(60 * 60).toEpochMilli(); // 1 hour
@@ -77,7 +111,7 @@ class JwtServiceTest {
     @Test
     void testIsTokenExpired_WithValidToken_ShouldReturnFalse() {
         Long userid = 1L;
-        String token = jwtService.generateToken(userid, "testuser");
+        String token = jwtService.generateToken(userid, "testuser", "user", 0L);
 
         Boolean isExpired = jwtService.isTokenExpired(token);
 
@@ -88,7 +122,7 @@ class JwtServiceTest {
     void testValidateToken_WithValidTokenAndMatchingUser_ShouldReturnTrue() {
         Long userId = 1L;
 
-        String token = jwtService.generateToken(userId, "testuser");
+        String token = jwtService.generateToken(userId, "testuser", "user", 0L);
 
         User user = new User();
         user.setId(userId);
@@ -105,7 +139,7 @@ class JwtServiceTest {
     @Test
     void testValidateToken_WithDifferentUserId_ShouldReturnFalse() {
         Long userId = 1L;
-        String token = jwtService.generateToken(userId, "testuser");
+        String token = jwtService.generateToken(userId, "testuser", "user", 0L);
 
         User user = new User();
         user.setId(2L);
@@ -131,7 +165,7 @@ class JwtServiceTest {
     @Test
     void testExtractUserId_WithTamperedToken_ShouldThrowSignatureException() {
         Long userId = 1L;
-        String validToken = jwtService.generateToken(userId, "testuser");
+        String validToken = jwtService.generateToken(userId, "testuser", "user", 0L);
         // Tamper with the token by changing a character
         String tamperedToken = validToken.substring(0, validToken.length() - 5) + "XXXXX";
 
@@ -139,4 +173,92 @@ class JwtServiceTest {
             jwtService.extractUserId(tamperedToken);
         });
     }
+
+    @Test
+    void testVerify_ShouldReturnClaimsFromOneParse() {
+        MutableClock clock = new MutableClock();
+        JwtService service = new JwtService(testSecret, 100, clock);
+        String token = service.generateToken(7L, "testuser", "admin", 4L);
+
+        VerifiedToken verified = service.verify(token);
+
+        assertEquals(7L, verified.userId());
+        assertEquals("testuser", verified.userName());
+        assertEquals("admin", verified.role());
+        assertEquals(4L, verified.tokenVersion());
+        assertEquals(clock.instant(), verified.issuedAt());
+        assertEquals(clock.instant().plus(Duration.ofHours(1)), verified.expiresAt());
+        assertNotNull(verified.tokenId());
+        assertEquals(verified, service.verify(token));
+    }
+
+    @Test
+    void testGenerateToken_ShouldGiveEachTokenItsOwnId() {
+        String first = jwtService.generateToken(1L, "testuser", "user", 0L);
+        String second = jwtService.generateToken(1L, "testuser", "user", 0L);
+
+        assertNotEquals(jwtService.verify(first).tokenId(), jwtService.verify(second).tokenId());
+    }
+
+    @Test
+    void testVerify_WithCachedTokenPastExpiry_ShouldThrowExpiredJwtException() {
+        MutableClock clock = new MutableClock();
+        JwtService service = new JwtService(testSecret, 100, clock);
+        String token = service.generateToken(1L, "testuser", "user", 0L);
+        service.verify(token);
+
+        clock.advance(Duration.ofHours(1).plusSeconds(1));
+
+        assertThrows(ExpiredJwtException.class, () -> service.verify(token));
+    }
+
+    @Test
+    void testVerify_WithTamperedTokenAfterValidOne_ShouldStillThrowSignatureException() {
+        String validToken = jwtService.generateToken(1L, "testuser", "user", 0L);
+        jwtService.verify(validToken);
+        String tamperedToken = validToken.substring(0, validToken.length() - 5) + "XXXXX";
+
+        assertThrows(SignatureException.class, () -> jwtService.verify(tamperedToken));
+        assertThrows(SignatureException.class, () -> jwtService.verify(tamperedToken));
+    }
+
+    @Test
+    void testVerify_WithCacheDisabled_ShouldStillVerify() {
+        JwtService uncached = new JwtService(testSecret, 0);
+        String token = uncached.generateToken(3L, "testuser", "user", 0L);
+
+        assertEquals(3L, uncached.verify(token).userId());
+        assertEquals(3L, uncached.verify(token).userId());
+    }
+
+    @Test
+    void testVerify_FromManyThreadsPastTheCacheBound_ShouldReturnEachTokensClaims() throws Exception {
+        JwtService service = new JwtService(testSecret, 50);
+        List<String> tokens = new ArrayList<>();
+        for (long userId = 0; userId < 200; userId++) {
+            tokens.add(service.generateToken(userId, "user" + userId, "user", 0L));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        for (int i = 0; i < tokens.size(); i++) {
+                            if (service.verify(tokens.get(i)).userId() != i) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -26,13 +26,13 @@ public class NtfyNotificationServiceTest {
     @Test
     void buildTaskClickUrl_withValidInputs_returnsUrl() {
         assertEquals("https://example.com/tasks/42",
-                NtfyNotificationService.buildTaskClickUrl("https://example.com", 42));
+                NtfyNotificationService.buildTaskClickUrl("https://example.com", 42L));
     }
 
     @Test
     void buildTaskClickUrl_stripsTrailingSlashes() {
         assertEquals("https://example.com/tasks/1",
-                NtfyNotificationService.buildTaskClickUrl("https://example.com///", 1));
+                NtfyNotificationService.buildTaskClickUrl("https://example.com///", 1L));
     }
 
     @Test
@@ -42,12 +42,12 @@ public class NtfyNotificationServiceTest {
 
     @Test
     void buildTaskClickUrl_nullBaseUrl_returnsNull() {
-        assertNull(NtfyNotificationService.buildTaskClickUrl(null, 1));
+        assertNull(NtfyNotificationService.buildTaskClickUrl(null, 1L));
     }
 
     @Test
     void buildTaskClickUrl_blankBaseUrl_returnsNull() {
-        assertNull(NtfyNotificationService.buildTaskClickUrl("   ", 1));
+        assertNull(NtfyNotificationService.buildTaskClickUrl("   ", 1L));
     }
 
     @Test
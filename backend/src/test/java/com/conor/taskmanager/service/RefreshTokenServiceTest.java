@@ -0,0 +1,168 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.exception.InvalidCredentialsException;
+import com.conor.taskmanager.model.LoginResponse;
+import com.conor.taskmanager.model.User;
+import com.conor.taskmanager.repository.RefreshTokenRepository;
+import com.conor.taskmanager.repository.RefreshTokenRepository.RefreshToken;
+import com.conor.taskmanager.security.JwtService;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserLookupService userLookupService;
+
+    @Mock
+    private JwtService jwtService;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userLookupService, jwtService,
+                Duration.ofDays(14), Duration.ofDays(30), Duration.ofSeconds(10), clock);
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("testUser");
+        user.setUserRole("user");
+        return user;
+    }
+
+    @Test
+    void issue_storesOnlyTheHashWithSlidingExpiryInsideTheFamilyLimit() {
+        String token = refreshTokenService.issue(1L);
+
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(refreshTokenRepository).insert(hash.capture(), eq(1L), anyString(), eq(NOW),
+                eq(NOW.plusDays(14)), eq(NOW.plusDays(30)));
+        assertEquals(64, hash.getValue().length());
+        assertFalse(hash.getValue().contains(token));
+    }
+
+    @Test
+    void refresh_rotatesTokenWithinTheSameFamily() {
+        String token = refreshTokenService.issue(1L);
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(refreshTokenRepository).insert(hash.capture(), eq(1L), anyString(), any(), any(), any());
+
+        when(refreshTokenRepository.lockByHash(hash.getValue())).thenReturn(Optional.of(
+                new RefreshToken(5L, 1L, "family", NOW.plusDays(14), NOW.plusDays(20), null)));
+        when(userLookupService.getUserById(1L)).thenReturn(user());
+        when(jwtService.generateToken(1L, "testUser", "user", 0L)).thenReturn("newJwtToken");
+
+        LoginResponse response = refreshTokenService.refresh(token);
+
+        assertEquals("testUser", response.getUserName());
+        assertEquals("newJwtToken", response.getJwtToken());
+        assertNotEquals(token, response.getRefreshToken());
+        verify(refreshTokenRepository).markUsed(5L, NOW);
+        // The successor stays in the family and keeps its limit; its own expiry slides forward
+        verify(refreshTokenRepository).insert(anyString(), eq(1L), eq("family"), eq(NOW),
+                eq(NOW.plusDays(14)), eq(NOW.plusDays(20)));
+    }
+
+    @Test
+    void refresh_capsSuccessorExpiryAtFamilyLimit() {
+        when(refreshTokenRepository.lockByHash(anyString())).thenReturn(Optional.of(
+                new RefreshToken(5L, 1L, "family", NOW.plusDays(1), NOW.plusDays(3), null)));
+        when(userLookupService.getUserById(1L)).thenReturn(user());
+
+        refreshTokenService.refresh("token");
+
+        verify(refreshTokenRepository).insert(anyString(), eq(1L), eq("family"), eq(NOW),
+                eq(NOW.plusDays(3)), eq(NOW.plusDays(3)));
+    }
+
+    @Test
+    void refresh_whenSameTokenIsPresentedTwiceWithinGrace_issuesAnotherSuccessorWithoutRevoking() {
+        when(refreshTokenRepository.lockByHash(anyString()))
+                .thenReturn(Optional.of(new RefreshToken(5L, 1L, "family", NOW.plusDays(14), NOW.plusDays(30), null)))
+                .thenReturn(Optional.of(new RefreshToken(5L, 1L, "family", NOW.plusDays(14), NOW.plusDays(30),
+                        NOW.minusSeconds(3))));
+        when(userLookupService.getUserById(1L)).thenReturn(user());
+
+        LoginResponse first = refreshTokenService.refresh("token");
+        LoginResponse second = refreshTokenService.refresh("token");
+
+        assertNotEquals(first.getRefreshToken(), second.getRefreshToken());
+        verify(refreshTokenRepository, never()).deleteFamily(any());
+        verify(refreshTokenRepository).markUsed(5L, NOW);
+        verify(refreshTokenRepository, times(2)).insert(anyString(), eq(1L), eq("family"), eq(NOW), any(), any());
+    }
+
+    @Test
+    void refresh_whenTokenWasAlreadyUsed_revokesTheFamily() {
+        when(refreshTokenRepository.lockByHash(anyString())).thenReturn(Optional.of(
+                new RefreshToken(5L, 1L, "family", NOW.plusDays(14), NOW.plusDays(30), NOW.minusMinutes(5))));
+
+        InvalidCredentialsException exception = assertThrows(InvalidCredentialsException.class,
+                () -> refreshTokenService.refresh("replayed"));
+
+        assertEquals("Invalid refresh token", exception.getMessage());
+        verify(refreshTokenRepository).deleteFamily("family");
+        verify(refreshTokenRepository, never()).markUsed(anyLong(), any());
+        verify(refreshTokenRepository, never()).insert(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void refresh_whenTokenExpired_throwsWithoutRevoking() {
+        when(refreshTokenRepository.lockByHash(anyString())).thenReturn(Optional.of(
+                new RefreshToken(5L, 1L, "family", NOW, NOW.plusDays(30), null)));
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.refresh("expired"));
+
+        verify(refreshTokenRepository, never()).deleteFamily(any());
+        verify(refreshTokenRepository, never()).markUsed(anyLong(), any());
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void refresh_whenTokenUnknown_throws() {
+        when(refreshTokenRepository.lockByHash(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.refresh("unknown"));
+
+        verifyNoInteractions(userLookupService, jwtService);
+    }
+
+    @Test
+    void revoke_deletesTheTokensFamily() {
+        when(refreshTokenRepository.lockByHash(anyString())).thenReturn(Optional.of(
+                new RefreshToken(5L, 1L, "family", NOW.plusDays(14), NOW.plusDays(30), null)));
+
+        refreshTokenService.revoke("token");
+
+        verify(refreshTokenRepository).deleteFamily("family");
+    }
+}
@@ -0,0 +1,151 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.repository.RevokedTokenRepository;
+import com.conor.taskmanager.repository.RevokedTokenRepository.RevokedToken;
+import com.conor.taskmanager.security.RevokedTokens;
+import com.conor.taskmanager.security.VerifiedToken;
+
+@ExtendWith(MockitoExtension.class)
+public class RevokedTokensTest {
+
+    private static final Instant START = Instant.parse("2026-03-01T12:00:00Z");
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private final MutableClock clock = new MutableClock();
+    private RevokedTokens revokedTokens;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokens = new RevokedTokens(revokedTokenRepository, clock);
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static VerifiedToken token(String tokenId, Instant expiresAt) {
+        return new VerifiedToken(1L, "testUser", "user", 0L, START, expiresAt, tokenId);
+    }
+
+    @Test
+    void revoke_storesTheTokenAndTakesEffectAtOnce() {
+        Instant expiresAt = START.plus(Duration.ofHours(1));
+
+        revokedTokens.revoke(token("jti-1", expiresAt));
+
+        verify(revokedTokenRepository).insert("jti-1", 1L, utc(expiresAt));
+        assertTrue(revokedTokens.isRevoked("jti-1"));
+        assertFalse(revokedTokens.isRevoked("jti-2"));
+    }
+
+    @Test
+    void revoke_withoutTokenId_isIgnored() {
+        revokedTokens.revoke(token(null, START.plus(Duration.ofHours(1))));
+
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void refresh_loadsUnexpiredRowsThenPollsFromTheCursor() {
+        LocalDateTime firstRevokedAt = utc(START.minusSeconds(60));
+        when(revokedTokenRepository.findUnexpired(utc(START))).thenReturn(List.of(
+                new RevokedToken("jti-1", utc(START.plus(Duration.ofMinutes(30))), firstRevokedAt)));
+        when(revokedTokenRepository.findRevokedSince(firstRevokedAt.minusSeconds(30))).thenReturn(List.of(
+                new RevokedToken("jti-1", utc(START.plus(Duration.ofMinutes(30))), firstRevokedAt),
+                new RevokedToken("jti-2", utc(START.plus(Duration.ofMinutes(40))), utc(START))));
+
+        revokedTokens.refresh();
+        assertTrue(revokedTokens.isRevoked("jti-1"));
+        assertFalse(revokedTokens.isRevoked("jti-2"));
+
+        revokedTokens.refresh();
+        assertTrue(revokedTokens.isRevoked("jti-1"));
+        assertTrue(revokedTokens.isRevoked("jti-2"));
+    }
+
+    @Test
+    void refresh_withNothingRevokedYet_keepsReadingUnexpiredRows() {
+        when(revokedTokenRepository.findUnexpired(any())).thenReturn(List.of());
+
+        revokedTokens.refresh();
+        revokedTokens.refresh();
+
+        verify(revokedTokenRepository, times(2)).findUnexpired(any());
+        verify(revokedTokenRepository, never()).findRevokedSince(any());
+    }
+
+    @Test
+    void refresh_dropsTokensOnceTheyWouldHaveExpired() {
+        revokedTokens.revoke(token("jti-1", START.plus(Duration.ofMinutes(10))));
+        when(revokedTokenRepository.findUnexpired(any())).thenReturn(List.of());
+
+        clock.advance(Duration.ofMinutes(11));
+        revokedTokens.refresh();
+
+        assertFalse(revokedTokens.isRevoked("jti-1"));
+    }
+
+    @Test
+    void isRevoked_hasNoFalseNegativesOrFalsePositivesWithManyTokens() {
+        List<RevokedToken> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new RevokedToken(UUID.randomUUID().toString(), utc(START.plus(Duration.ofHours(1))), utc(START)));
+        }
+        when(revokedTokenRepository.findUnexpired(any())).thenReturn(rows);
+
+        revokedTokens.refresh();
+
+        for (RevokedToken row : rows) {
+            assertTrue(revokedTokens.isRevoked(row.jti()));
+        }
+        // The filter's false positives are settled by the exact set
+        for (int i = 0; i < 5000; i++) {
+            assertFalse(revokedTokens.isRevoked(UUID.randomUUID().toString()));
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = START;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
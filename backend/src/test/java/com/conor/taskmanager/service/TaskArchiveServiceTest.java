@@ -0,0 +1,126 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.conor.taskmanager.exception.ValidationException;
+import com.conor.taskmanager.model.Task.Priority;
+import com.conor.taskmanager.model.Task.Status;
+import com.conor.taskmanager.model.TaskPage;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskArchiveRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskArchiveServiceTest {
+
+    @Mock
+    private TaskArchiveRepository taskArchiveRepository;
+
+    @Mock
+    private TaskSummaryService taskSummaryService;
+
+    @Mock
+    private TaskSyncService taskSyncService;
+
+    @Mock
+    private TaskSearchIndex taskSearchIndex;
+
+    @Mock
+    private TaskListVersions taskListVersions;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TaskArchiveService taskArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        taskArchiveService = new TaskArchiveService(taskArchiveRepository, taskSummaryService, taskSyncService,
+                taskSearchIndex, taskListVersions, transactionManager, 90, 2);
+    }
+
+    private static TaskResponse completed(long id, Long userId, Priority priority) {
+        return new TaskResponse(id, userId, "Task " + id, "Description", Status.COMPLETED, priority, null,
+                LocalDateTime.now().minusYears(1), null, 3L);
+    }
+
+    @Test
+    void archiveCompletedTasks_movesFullBatchesUntilOneComesBackShort() {
+        when(taskArchiveRepository.lockArchivable(any(), eq(2))).thenReturn(
+                List.of(completed(1, 1L, Priority.LOW), completed(2, 1L, Priority.LOW)),
+                List.of(completed(3, 1L, Priority.LOW)));
+
+        taskArchiveService.archiveCompletedTasks();
+
+        verify(taskArchiveRepository, times(2)).lockArchivable(any(), eq(2));
+        verify(taskArchiveRepository).moveToArchive(eq(List.of(1L, 2L)), any());
+        verify(taskArchiveRepository).moveToArchive(eq(List.of(3L)), any());
+        // Each batch ran in its own transaction
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void archiveBatch_removesTasksFromEachOwnersCountersSyncAndSearch() {
+        when(taskArchiveRepository.lockArchivable(any(), anyInt())).thenReturn(
+                List.of(completed(1, 1L, Priority.HIGH), completed(2, 2L, Priority.LOW)));
+
+        assertEquals(2, taskArchiveService.archiveBatch(LocalDateTime.now()));
+
+        ArgumentCaptor<TaskCounterDelta> counts = ArgumentCaptor.forClass(TaskCounterDelta.class);
+        verify(taskSummaryService).record(eq(1L), counts.capture());
+        assertEquals(Map.of(Status.COMPLETED, -1), counts.getValue().statusChanges());
+        assertEquals(Map.of(Priority.HIGH, -1), counts.getValue().priorityChanges());
+        verify(taskSyncService).recordDeleted(1L, List.of(1L));
+        verify(taskSyncService).recordDeleted(2L, List.of(2L));
+        verify(taskSearchIndex).remove(List.of(1L));
+        verify(taskListVersions).bump(1L);
+        verify(taskListVersions).bump(2L);
+    }
+
+    @Test
+    void archiveBatch_whenNothingIsOldEnough_changesNothing() {
+        when(taskArchiveRepository.lockArchivable(any(), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, taskArchiveService.archiveBatch(LocalDateTime.now()));
+
+        verify(taskArchiveRepository, never()).moveToArchive(any(), any());
+        verifyNoInteractions(taskSummaryService, taskListVersions);
+    }
+
+    @Test
+    void getArchivedTasks_returnsCursorOnlyWhenAnotherPageExists() {
+        when(taskArchiveRepository.findPage(1L, null, 3)).thenReturn(List.of(
+                completed(9, 1L, Priority.LOW), completed(7, 1L, Priority.LOW), completed(4, 1L, Priority.LOW)));
+        when(taskArchiveRepository.findPage(1L, 7L, 3)).thenReturn(List.of(completed(4, 1L, Priority.LOW)));
+
+        TaskPage first = taskArchiveService.getArchivedTasks(1L, null, 2);
+        TaskPage last = taskArchiveService.getArchivedTasks(1L, first.nextCursor(), 2);
+
+        assertEquals(List.of(9L, 7L), first.items().stream().map(TaskResponse::id).toList());
+        assertEquals("7", first.nextCursor());
+        assertEquals(List.of(4L), last.items().stream().map(TaskResponse::id).toList());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void getArchivedTasks_whenCursorOrLimitIsInvalid_throwsValidationException() {
+        assertThrows(ValidationException.class, () -> taskArchiveService.getArchivedTasks(1L, "abc", 20));
+        assertThrows(ValidationException.class, () -> taskArchiveService.getArchivedTasks(1L, null, 0));
+        verifyNoInteractions(taskArchiveRepository);
+    }
+}
@@ -0,0 +1,227 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.Task.Priority;
+import com.conor.taskmanager.model.Task.Status;
+import com.conor.taskmanager.model.TaskBatchOperation;
+import com.conor.taskmanager.model.TaskBatchOperation.Type;
+import com.conor.taskmanager.model.TaskBatchResult;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.model.User;
+import com.conor.taskmanager.repository.TaskBatchRepository;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+import com.conor.taskmanager.repository.TaskRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskBatchServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskQueryRepository taskQueryRepository;
+
+    @Mock
+    private TaskBatchRepository taskBatchRepository;
+
+    @Mock
+    private UserLookupService userLookupService;
+
+    @Mock
+    private TaskListVersions taskListVersions;
+
+    @Mock
+    private TaskSearchIndex taskSearchIndex;
+
+    @Mock
+    private TaskSummaryService taskSummaryService;
+
+    @Mock
+    private TaskSyncService taskSyncService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private TaskBatchService taskBatchService;
+
+    @BeforeEach
+    void setUp() {
+        taskBatchService = new TaskBatchService(taskRepository, taskQueryRepository, taskBatchRepository,
+                userLookupService, taskListVersions, taskSearchIndex, taskSummaryService,
+                taskSyncService, eventPublisher);
+    }
+
+    private static Task task(String title, Status status, LocalDateTime dueDate) {
+        return new Task(null, title, "Description", status, Priority.HIGH, dueDate);
+    }
+
+    private static TaskResponse existing(long id, Long userId, Status status, LocalDateTime dueDate,
+            LocalDateTime reminderSentAt) {
+        return new TaskResponse(id, userId, "Task " + id, "Description", status, Priority.LOW, dueDate,
+                LocalDateTime.now().minusDays(1), reminderSentAt, 0L);
+    }
+
+    private static Task saved(Task task, long id) {
+        Task saved = new Task(id, task.getTitle(), task.getDescription(), task.getStatus(), task.getPriority(),
+                task.getDueDate());
+        saved.setUser(task.getUser());
+        return saved;
+    }
+
+    @Test
+    void applyBatch_appliesEachOperationTypeAndReportsResultsInOrder() {
+        Long userId = 1L;
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(1);
+
+        when(taskQueryRepository.lockAllById(Set.of(5L, 6L))).thenReturn(List.of(
+                existing(5, userId, Status.PENDING, dueDate, null),
+                existing(6, userId, Status.PENDING, null, null)));
+        User user = new User();
+        user.setId(userId);
+        when(userLookupService.getUserReference(userId)).thenReturn(user);
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            return List.of(saved(tasks.get(0), 10L), saved(tasks.get(1), 11L));
+        });
+
+        List<TaskBatchResult> results = taskBatchService.applyBatch(List.of(
+                new TaskBatchOperation(Type.CREATE, null, task("New 1", Status.COMPLETED, null)),
+                new TaskBatchOperation(Type.UPDATE, 5L, task("Renamed", Status.IN_PROGRESS, dueDate)),
+                new TaskBatchOperation(Type.DELETE, 6L, null),
+                new TaskBatchOperation(Type.CREATE, null, task("New 2", Status.PENDING, null))), userId);
+
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(TaskBatchResult::index).toList());
+        assertEquals(List.of(201, 200, 204, 201), results.stream().map(TaskBatchResult::status).toList());
+        assertEquals(10L, results.get(0).task().id());
+        assertEquals(Status.PENDING, results.get(0).task().status());
+        assertEquals(Priority.LOW, results.get(0).task().priority());
+        assertEquals("Renamed", results.get(1).task().title());
+        assertEquals(11L, results.get(3).task().id());
+
+        verify(taskRepository).saveAll(anyList());
+        verify(taskBatchRepository).updateAll(eq(userId), anyList(), any());
+        verify(taskBatchRepository).deleteAll(userId, List.of(6L));
+        verify(taskSyncService).recordDeleted(userId, List.of(6L));
+        verify(taskListVersions).bump(userId);
+
+        // Two creates, one delete and a PENDING/LOW -> IN_PROGRESS/HIGH update net out to this
+        ArgumentCaptor<TaskCounterDelta> counts = ArgumentCaptor.forClass(TaskCounterDelta.class);
+        verify(taskSummaryService).record(eq(userId), counts.capture());
+        assertEquals(Map.of(Status.IN_PROGRESS, 1), counts.getValue().statusChanges());
+        assertEquals(Map.of(Priority.HIGH, 1), counts.getValue().priorityChanges());
+    }
+
+    @Test
+    void applyBatch_whenTaskIsMissingOrOwnedByAnotherUser_reportsFailureAndSkipsIt() {
+        Long userId = 1L;
+
+        when(taskQueryRepository.lockAllById(Set.of(5L, 6L))).thenReturn(List.of(
+                existing(6, 2L, Status.PENDING, null, null)));
+
+        List<TaskBatchResult> results = taskBatchService.applyBatch(List.of(
+                new TaskBatchOperation(Type.DELETE, 5L, null),
+                new TaskBatchOperation(Type.UPDATE, 6L, task("Mine now", Status.PENDING, null))), userId);
+
+        assertEquals(404, results.get(0).status());
+        assertEquals("Task not found", results.get(0).message());
+        assertEquals(403, results.get(1).status());
+        assertNull(results.get(1).task());
+        verifyNoInteractions(taskBatchRepository);
+        verifyNoInteractions(taskListVersions);
+    }
+
+    @Test
+    void applyBatch_whenOperationIsIncompleteOrRepeated_reportsBadRequest() {
+        Long userId = 1L;
+
+        when(taskQueryRepository.lockAllById(Set.of(5L))).thenReturn(List.of(
+                existing(5, userId, Status.PENDING, null, null)));
+
+        List<TaskBatchResult> results = taskBatchService.applyBatch(List.of(
+                new TaskBatchOperation(Type.CREATE, null, null),
+                new TaskBatchOperation(Type.UPDATE, null, task("No id", Status.PENDING, null)),
+                new TaskBatchOperation(Type.DELETE, 5L, null),
+                new TaskBatchOperation(Type.UPDATE, 5L, task("Again", Status.PENDING, null))), userId);
+
+        assertEquals(List.of(400, 400, 204, 400), results.stream().map(TaskBatchResult::status).toList());
+        assertEquals("Task is required for CREATE", results.get(0).message());
+        assertEquals("Task id is required for UPDATE", results.get(1).message());
+        assertEquals("Task 5 appears more than once in the batch", results.get(3).message());
+        verify(taskBatchRepository).deleteAll(userId, List.of(5L));
+        verify(taskBatchRepository, never()).updateAll(any(), anyList(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyBatch_whenUpdateHasNoStatusOrPriority_reportsBadRequestAndAppliesTheRest() {
+        Long userId = 1L;
+
+        when(taskQueryRepository.lockAllById(Set.of(5L, 6L, 7L))).thenReturn(List.of(
+                existing(5, userId, Status.PENDING, null, null),
+                existing(6, userId, Status.PENDING, null, null),
+                existing(7, userId, Status.PENDING, null, null)));
+        User user = new User();
+        user.setId(userId);
+        when(userLookupService.getUserReference(userId)).thenReturn(user);
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            return List.of(saved(tasks.get(0), 10L));
+        });
+        Task noPriority = task("No priority", Status.PENDING, null);
+        noPriority.setPriority(null);
+
+        List<TaskBatchResult> results = taskBatchService.applyBatch(List.of(
+                new TaskBatchOperation(Type.UPDATE, 5L, task("No status", null, null)),
+                new TaskBatchOperation(Type.UPDATE, 6L, noPriority),
+                new TaskBatchOperation(Type.UPDATE, 7L, task("Renamed", Status.COMPLETED, null)),
+                new TaskBatchOperation(Type.CREATE, null, task("New", null, null))), userId);
+
+        assertEquals(List.of(400, 400, 200, 201), results.stream().map(TaskBatchResult::status).toList());
+        assertEquals("Status and priority are required for UPDATE", results.get(0).message());
+        assertEquals("Status and priority are required for UPDATE", results.get(1).message());
+        assertEquals(Status.PENDING, results.get(3).task().status());
+
+        ArgumentCaptor<List<TaskResponse>> updates = ArgumentCaptor.forClass(List.class);
+        verify(taskBatchRepository).updateAll(eq(userId), updates.capture(), any());
+        assertEquals(List.of(7L), updates.getValue().stream().map(TaskResponse::id).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyBatch_whenDueDateChanges_resetsReminderLikeSingleUpdate() {
+        Long userId = 1L;
+        LocalDateTime sentAt = LocalDateTime.now().minusHours(1);
+
+        when(taskQueryRepository.lockAllById(Set.of(5L, 6L))).thenReturn(List.of(
+                existing(5, userId, Status.PENDING, LocalDateTime.now().plusHours(1), sentAt),
+                existing(6, userId, Status.PENDING, null, sentAt)));
+
+        taskBatchService.applyBatch(List.of(
+                new TaskBatchOperation(Type.UPDATE, 5L, task("Moved", Status.PENDING, LocalDateTime.now().plusDays(3))),
+                new TaskBatchOperation(Type.UPDATE, 6L, task("Renamed", Status.PENDING, null))), userId);
+
+        ArgumentCaptor<List<TaskResponse>> updates = ArgumentCaptor.forClass(List.class);
+        verify(taskBatchRepository).updateAll(eq(userId), updates.capture(), any());
+        assertNull(updates.getValue().get(0).reminderSentAt());
+        assertEquals(sentAt, updates.getValue().get(1).reminderSentAt());
+    }
+}
@@ -0,0 +1,123 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.model.Task.Priority;
+import com.conor.taskmanager.model.Task.Status;
+import com.conor.taskmanager.model.TaskResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TaskCacheTest {
+
+    @Mock
+    private TaskListVersions taskListVersions;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private TaskCache taskCache;
+
+    @BeforeEach
+    void setUp() {
+        taskCache = new TaskCache(taskListVersions, 2, 3, Duration.ofSeconds(60), now::get);
+    }
+
+    private List<TaskResponse> load(Long userId, int count) {
+        loads.incrementAndGet();
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new TaskResponse(id, userId, "Task " + id, "Description", Status.PENDING,
+                        Priority.LOW, null, LocalDateTime.now(), null, 0L))
+                .toList();
+    }
+
+    @Test
+    void getTasks_whenVersionIsUnchanged_loadsOnce() {
+        taskCache.getTasks(1L, () -> load(1L, 2));
+        taskCache.getTasks(1L, () -> load(1L, 2));
+
+        assertEquals(1, loads.get());
+        assertEquals("Task 2", taskCache.getTask(1L, 2L).title());
+    }
+
+    @Test
+    void getTasks_whenUserListWasWritten_reloads() {
+        taskCache.getTasks(1L, () -> load(1L, 2));
+        when(taskListVersions.currentVersion(1L)).thenReturn(1L);
+
+        assertNull(taskCache.getTask(1L, 2L));
+        taskCache.getTasks(1L, () -> load(1L, 2));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getTasks_whenReaderSeesAnOlderVersion_keepsTheNewerEntry() {
+        when(taskListVersions.currentVersion(1L)).thenReturn(5L, 4L, 5L);
+
+        taskCache.getTasks(1L, () -> load(1L, 2));
+        // Read from a replica that hasn't caught up with the write behind version 5
+        taskCache.getTasks(1L, () -> load(1L, 1));
+        taskCache.getTasks(1L, () -> load(1L, 2));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, taskCache.size());
+    }
+
+    @Test
+    void getTasks_whenEntryIsOlderThanTtl_reloads() {
+        taskCache.getTasks(1L, () -> load(1L, 1));
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        taskCache.getTasks(1L, () -> load(1L, 1));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getTasks_whenMoreUsersThanCapacity_evictsLeastRecentlyUsed() {
+        taskCache.getTasks(1L, () -> load(1L, 1));
+        taskCache.getTasks(2L, () -> load(2L, 1));
+        taskCache.getTasks(1L, () -> load(1L, 1));
+        taskCache.getTasks(3L, () -> load(3L, 1));
+
+        assertEquals(2, taskCache.size());
+        assertNotNull(taskCache.getTask(1L, 1L));
+        assertNull(taskCache.getTask(2L, 1L));
+    }
+
+    @Test
+    void getTasks_whenListIsTooLarge_doesNotCacheIt() {
+        taskCache.getTasks(1L, () -> load(1L, 4));
+
+        assertEquals(0, taskCache.size());
+    }
+
+    @Test
+    void bindTo_exposesCacheMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        taskCache.bindTo(registry);
+
+        taskCache.getTasks(1L, () -> load(1L, 1));
+        taskCache.getTasks(1L, () -> load(1L, 1));
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "tasks").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "tasks").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").tag("cache", "tasks").gauge().value());
+    }
+}
@@ -0,0 +1,199 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.conor.taskmanager.model.Task.Priority;
+import com.conor.taskmanager.model.Task.Status;
+import com.conor.taskmanager.model.TaskEvent;
+import com.conor.taskmanager.model.TaskResponse;
+
+import tools.jackson.databind.json.JsonMapper;
+
+public class TaskEventHubTest {
+
+    private final Queue<Runnable> pendingSends = new ArrayDeque<>();
+
+    private TaskEventHub taskEventHub;
+
+    @BeforeEach
+    void setUp() {
+        // Sends run only when the test drains them, so a slow client can be simulated
+        taskEventHub = new TaskEventHub(pendingSends::add, JsonMapper.builder().build(), 60_000, 2, 2);
+    }
+
+    private void runPendingSends() {
+        Runnable send;
+        while ((send = pendingSends.poll()) != null) {
+            send.run();
+        }
+    }
+
+    private static TaskResponse task(long id, Long userId) {
+        return new TaskResponse(id, userId, "Task " + id, "Description", Status.PENDING, Priority.LOW, null,
+                LocalDateTime.now(), null, 0L);
+    }
+
+    @Test
+    void publish_sendsEventOnlyToThatUsersConnections() {
+        RecordingEmitter mine = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        taskEventHub.register(1L, mine);
+        taskEventHub.register(2L, other);
+
+        taskEventHub.publish(TaskEvent.created(task(5, 1L)));
+        taskEventHub.publish(TaskEvent.deleted(1L, 6L));
+        runPendingSends();
+
+        assertEquals(2, mine.sent.size());
+        assertTrue(mine.sent.get(0).contains("event:CREATED"));
+        assertTrue(mine.sent.get(0).contains("\"title\":\"Task 5\""));
+        assertTrue(mine.sent.get(1).contains("event:DELETED"));
+        assertFalse(mine.sent.get(1).contains("userId"));
+        assertTrue(other.sent.isEmpty());
+    }
+
+    @Test
+    void publish_whenClientFallsBehindItsBuffer_closesTheConnection() {
+        RecordingEmitter slow = new RecordingEmitter();
+        taskEventHub.register(1L, slow);
+
+        for (long id = 1; id <= 3; id++) {
+            taskEventHub.publish(TaskEvent.updated(task(id, 1L)));
+        }
+
+        assertTrue(slow.completed);
+        assertEquals(0, taskEventHub.connectionCount(1L));
+        runPendingSends();
+        assertTrue(slow.sent.isEmpty());
+    }
+
+    @Test
+    void publish_whenSendFails_dropsTheConnection() {
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.failSends = true;
+        taskEventHub.register(1L, broken);
+
+        taskEventHub.publish(TaskEvent.created(task(5, 1L)));
+        runPendingSends();
+
+        assertEquals(0, taskEventHub.connectionCount(1L));
+    }
+
+    @Test
+    void register_whenUserHasTooManyConnections_closesTheOldest() {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        RecordingEmitter third = new RecordingEmitter();
+
+        taskEventHub.register(1L, first);
+        taskEventHub.register(1L, second);
+        taskEventHub.register(1L, third);
+
+        assertTrue(first.completed);
+        assertFalse(second.completed);
+        assertFalse(third.completed);
+        assertEquals(2, taskEventHub.connectionCount(1L));
+    }
+
+    @Test
+    void register_racingOtherConnectionsClosing_neverLosesTheNewConnection() throws Exception {
+        int threads = 8;
+        TaskEventHub hub = new TaskEventHub(Runnable::run, JsonMapper.builder().build(), 60_000, 2, threads);
+        AtomicInteger lost = new AtomicInteger();
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 20_000; i++) {
+                        RecordingEmitter emitter = new RecordingEmitter();
+                        hub.register(1L, emitter);
+                        // Still open, so it must be counted whatever the other threads did meanwhile
+                        if (hub.connectionCount(1L) == 0) {
+                            lost.incrementAndGet();
+                        }
+                        emitter.fireCompletion();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, lost.get());
+        assertEquals(0, hub.connectionCount(1L));
+    }
+
+    @Test
+    void sendHeartbeats_writesCommentToEveryConnection() {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        taskEventHub.register(1L, first);
+        taskEventHub.register(2L, second);
+
+        taskEventHub.sendHeartbeats();
+        runPendingSends();
+
+        assertEquals(List.of(":heartbeat\n\n"), first.sent);
+        assertEquals(List.of(":heartbeat\n\n"), second.sent);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new ArrayList<>();
+        private boolean failSends;
+        private boolean completed;
+        private Runnable completionCallback;
+
+        // What the container does when the client goes away
+        void fireCompletion() {
+            completionCallback.run();
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            completionCallback = callback;
+            super.onCompletion(callback);
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            if (failSends) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder text = new StringBuilder();
+            items.forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+}
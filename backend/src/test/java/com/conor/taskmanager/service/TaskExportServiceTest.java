@@ -0,0 +1,98 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.model.Task.Priority;
+import com.conor.taskmanager.model.Task.Status;
+import com.conor.taskmanager.model.TaskExportFormat;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskExportServiceTest {
+
+    @Mock
+    private TaskQueryRepository taskQueryRepository;
+
+    private TaskExportService taskExportService;
+
+    @BeforeEach
+    void setUp() {
+        taskExportService = new TaskExportService(taskQueryRepository, JsonMapper.builder().build());
+    }
+
+    private static TaskResponse task(long id, String title, String description) {
+        return new TaskResponse(id, 1L, title, description, Status.PENDING, Priority.HIGH,
+                LocalDateTime.of(2026, 3, 1, 9, 30), LocalDateTime.of(2026, 2, 1, 8, 0), null, 2L);
+    }
+
+    private String export(TaskExportFormat format, Long afterId) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        taskExportService.export(1L, format, afterId, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void export_asNdjson_writesOneJsonObjectPerLineAndClosesCursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(taskQueryRepository.streamForExport(1L, 0L)).thenReturn(
+                Stream.of(task(3, "First", "A"), task(7, "Second", "B")).onClose(() -> closed.set(true)));
+
+        String[] lines = export(TaskExportFormat.NDJSON, null).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":3,"));
+        assertTrue(lines[1].contains("\"title\":\"Second\""));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void export_asCsv_writesHeaderAndQuotesFieldsThatNeedIt() throws Exception {
+        when(taskQueryRepository.streamForExport(1L, 0L)).thenReturn(
+                Stream.of(task(3, "Buy milk, eggs", "Say \"hi\"\nthen leave")));
+
+        String csv = export(TaskExportFormat.CSV, null);
+
+        assertEquals(TaskExportService.CSV_HEADER + "\n"
+                + "3,\"Buy milk, eggs\",\"Say \"\"hi\"\"\nthen leave\",PENDING,HIGH,2026-03-01T09:30,2026-02-01T08:00,,2\n",
+                csv);
+    }
+
+    @Test
+    void export_asCsv_neutralizesTextThatSpreadsheetsWouldRunAsFormula() throws Exception {
+        when(taskQueryRepository.streamForExport(1L, 0L)).thenReturn(Stream.of(
+                task(3, "=HYPERLINK(\"http://evil\",\"x\")", "@SUM(A1)"),
+                task(4, "+1", "-2"),
+                task(5, "\tTabbed", "Plain - text")));
+
+        String[] lines = export(TaskExportFormat.CSV, null).split("\n");
+
+        assertTrue(lines[1].startsWith("3,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",\"'@SUM(A1)\",PENDING,"));
+        assertTrue(lines[2].startsWith("4,\"'+1\",\"'-2\",PENDING,"));
+        assertTrue(lines[3].startsWith("5,\"'\tTabbed\",Plain - text,PENDING,"));
+    }
+
+    @Test
+    void export_whenResuming_startsAfterLastIdAndSkipsCsvHeader() throws Exception {
+        when(taskQueryRepository.streamForExport(1L, 3L)).thenReturn(Stream.of(task(7, "Second", "B")));
+
+        String csv = export(TaskExportFormat.CSV, 3L);
+
+        assertTrue(csv.startsWith("7,Second,B,"));
+    }
+}
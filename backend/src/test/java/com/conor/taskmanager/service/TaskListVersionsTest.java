@@ -0,0 +1,59 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.repository.TaskListVersionRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskListVersionsTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-01T12:00:00.750Z"), ZoneOffset.UTC);
+
+    @Mock
+    private TaskListVersionRepository taskListVersionRepository;
+
+    private TaskListVersions versions;
+
+    @BeforeEach
+    void setUp() {
+        versions = new TaskListVersions(taskListVersionRepository, CLOCK);
+    }
+
+    @Test
+    void bump_incrementsTheStoredVersionRightAway() {
+        versions.bump(1L);
+
+        // Not deferred to after commit, so it lands in the writer's transaction, and to the second
+        verify(taskListVersionRepository).increment(1L, LocalDateTime.of(2026, 3, 1, 12, 0));
+    }
+
+    @Test
+    void currentETag_followsTheStoredVersion() {
+        when(taskListVersionRepository.findVersion(1L)).thenReturn(7L, 8L);
+
+        String before = versions.currentETag(1L);
+        String after = versions.currentETag(1L);
+
+        assertEquals(versions.eTagFor(7L), before);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void currentETag_isTheSameOnEveryInstance() {
+        when(taskListVersionRepository.findVersion(1L)).thenReturn(7L);
+
+        assertEquals(versions.currentETag(1L), new TaskListVersions(taskListVersionRepository).currentETag(1L));
+    }
+}
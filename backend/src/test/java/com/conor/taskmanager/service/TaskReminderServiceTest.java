@@ -11,10 +11,13 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskEvent;
 import com.conor.taskmanager.model.User;
 import com.conor.taskmanager.repository.TaskRepository;
 
@@ -30,6 +33,12 @@ public class TaskReminderServiceTest {
     @Mock
     private NtfyNotificationService ntfyNotificationService;
 
+    @Mock
+    private TaskListVersions taskListVersions;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private TaskReminderService service;
 
     private User testUser;
@@ -37,13 +46,14 @@ public class TaskReminderServiceTest {
     @BeforeEach
     void setUp() {
         service = new TaskReminderService(
-                taskRepository, notificationSettingsService, ntfyNotificationService, 30);
+                taskRepository, notificationSettingsService, ntfyNotificationService, taskListVersions,
+                eventPublisher, 30);
         testUser = new User();
         testUser.setId(1L);
         testUser.setNtfyEnabled(true);
     }
 
-    private Task createDueTask(int id) {
+    private Task createDueTask(long id) {
         Task task = new Task(id, "Task " + id, "Description", Task.Status.PENDING,
                 Task.Priority.HIGH, LocalDateTime.now().plusMinutes(15));
         task.setUser(testUser);
@@ -56,12 +66,20 @@ public class TaskReminderServiceTest {
         when(taskRepository.findByReminderSentAtIsNullAndDueDateBetweenAndStatusNot(
                 any(), any(), eq(Task.Status.COMPLETED))).thenReturn(List.of(task));
         when(notificationSettingsService.canSendReminder(testUser)).thenReturn(true);
+        when(taskRepository.save(task)).thenReturn(task);
 
         service.sendDueSoonReminders();
 
         verify(ntfyNotificationService).sendTaskReminder(testUser, task);
         assertNotNull(task.getReminderSentAt());
         verify(taskRepository).save(task);
+        verify(taskListVersions).bump(1L);
+
+        ArgumentCaptor<TaskEvent> event = ArgumentCaptor.forClass(TaskEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(TaskEvent.Type.REMINDER_SENT, event.getValue().type());
+        assertEquals(1L, event.getValue().userId());
+        assertEquals(task.getReminderSentAt(), event.getValue().task().reminderSentAt());
     }
 
     @Test
@@ -74,5 +92,6 @@ public class TaskReminderServiceTest {
         service.sendDueSoonReminders();
 
         assertNull(task.getReminderSentAt());
+        verifyNoInteractions(taskListVersions);
     }
 }
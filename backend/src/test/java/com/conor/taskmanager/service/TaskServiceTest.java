@@ -2,25 +2,45 @@ package com.conor.taskmanager.service;
 
 import com.conor.taskmanager.exception.TaskNotFoundException;
 import com.conor.taskmanager.exception.ForbiddenException;
-import com.conor.taskmanager.exception.UserNotFoundException;
+import com.conor.taskmanager.exception.PreconditionFailedException;
+import com.conor.taskmanager.exception.ValidationException;
 import com.conor.taskmanager.model.Task;
+import com.conor.taskmanager.model.TaskEvent;
+import com.conor.taskmanager.model.TaskFilter;
+import com.conor.taskmanager.model.TaskPage;
+import com.conor.taskmanager.model.TaskPatchRequest;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.model.TaskSearchPage;
 import com.conor.taskmanager.model.Task.Priority;
 import com.conor.taskmanager.model.Task.Status;
 import com.conor.taskmanager.model.User;
+import com.conor.taskmanager.repository.TaskQueryRepository;
 import com.conor.taskmanager.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,92 +49,253 @@ public class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskQueryRepository taskQueryRepository;
+
     @Mock
     private UserLookupService userLookupService;
 
+    @Mock
+    private TaskListVersions taskListVersions;
+
+    @Mock
+    private TaskSearchIndex taskSearchIndex;
+
+    @Mock
+    private TaskSummaryService taskSummaryService;
+
+    @Mock
+    private TaskSyncService taskSyncService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private TaskService taskService;
 
     @BeforeEach
     void setUp() {
-        taskService = new TaskService(taskRepository, userLookupService);
+        TaskCache taskCache = new TaskCache(taskListVersions, 100, 1000, Duration.ofMinutes(5), System::nanoTime);
+        taskService = new TaskService(taskRepository, taskQueryRepository, userLookupService, taskListVersions,
+                taskSearchIndex, taskCache, taskSummaryService,
+                taskSyncService, eventPublisher);
+    }
+
+    private static TaskResponse taskResponse(long id, Long userId, LocalDateTime dueDate) {
+        return new TaskResponse(id, userId, "Task " + id, "Description " + id, Status.PENDING, Priority.LOW,
+                dueDate, LocalDateTime.now(), null, 0L);
     }
 
     @Test
-    void getTasksForUser_whenUserExists_returnsTaskList() {
+    void getTasksForUser_returnsTaskListWithoutLoadingUser() {
 
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
-        user.setUserName("test@test.com");
-
-        Task task1 = new Task(1, "Task 1", "Description 1", Status.PENDING, Priority.LOW,
-                LocalDateTime.now().plusDays(1));
-        Task task2 = new Task(2, "Task 2", "Description 2", Status.COMPLETED, Priority.HIGH,
-                LocalDateTime.now().plusDays(2));
-        List<Task> tasks = Arrays.asList(task1, task2);
+        List<TaskResponse> tasks = Arrays.asList(
+                taskResponse(1, userId, LocalDateTime.now().plusDays(1)),
+                taskResponse(2, userId, LocalDateTime.now().plusDays(2)));
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
-        when(taskRepository.findByUser(user)).thenReturn(tasks);
+        when(taskQueryRepository.findAll(eq(userId), eq(TaskFilter.none()), any())).thenReturn(tasks);
 
-        List<Task> result = taskService.getTasksForUser(userId);
+        List<TaskResponse> result = taskService.getTasksForUser(userId, TaskFilter.none());
 
         assertNotNull(result);
         assertEquals(2, result.size());
+        verifyNoInteractions(userLookupService);
     }
 
     @Test
-    void getTasksForUser_whenUserDoesNotExist_throwsException() {
+    void getTaskListing_tagsTasksWithTheVersionReadAlongsideThem() {
+        Long userId = 1L;
+        List<TaskResponse> tasks = List.of(taskResponse(1, userId, null));
+        when(taskListVersions.currentETag(userId)).thenReturn("v3");
+        when(taskQueryRepository.findAll(eq(userId), eq(TaskFilter.none()), any())).thenReturn(tasks);
 
-        Long userId = 99L;
-        when(userLookupService.getUserById(userId)).thenThrow(new UserNotFoundException("User not found"));
+        TaskService.TaskListing listing = taskService.getTaskListing(userId, TaskFilter.none());
 
-        assertThrows(UserNotFoundException.class, () -> {
-            taskService.getTasksForUser(userId);
-        });
+        assertEquals(tasks, listing.tasks());
+        assertEquals("v3", listing.eTag());
+        InOrder inOrder = inOrder(taskListVersions, taskQueryRepository);
+        inOrder.verify(taskListVersions).currentETag(userId);
+        inOrder.verify(taskQueryRepository).findAll(eq(userId), eq(TaskFilter.none()), any());
     }
 
     @Test
-    void getTaskById_whenTaskExistsAndUserOwnsIt_returnsTask() {
+    void getTasksForUser_whenListIsCached_skipsQueryUntilVersionChanges() {
 
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
-        user.setUserName("test@test.com");
+        List<TaskResponse> tasks = List.of(taskResponse(1, userId, null));
+        when(taskQueryRepository.findAll(eq(userId), eq(TaskFilter.none()), any())).thenReturn(tasks);
+
+        taskService.getTasksForUser(userId, TaskFilter.none());
+        assertEquals(tasks, taskService.getTasksForUser(userId, TaskFilter.none()));
+        assertEquals(tasks.get(0), taskService.getTaskById(1L, userId));
+        verify(taskQueryRepository, times(1)).findAll(any(), any(), any());
+        verify(taskQueryRepository, never()).findByIdAndUserId(any(), any());
+
+        when(taskListVersions.currentVersion(userId)).thenReturn(1L);
+        taskService.getTasksForUser(userId, TaskFilter.none());
+        verify(taskQueryRepository, times(2)).findAll(any(), any(), any());
+    }
 
-        Task task = new Task(1, "Task 1", "Description", Status.PENDING, Priority.LOW,
-                LocalDateTime.now().plusDays(1));
-        task.setUser(user);
+    @Test
+    void getTasksForUser_whenFilterIsGiven_passesItToQuery() {
+
+        Long userId = 1L;
+        TaskFilter filter = new TaskFilter(Status.PENDING, Priority.HIGH, null, null, true,
+                TaskFilter.SortOrder.DUE_DATE_ASC);
+        TaskResponse task = taskResponse(1, userId, LocalDateTime.now().minusDays(1));
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
-        when(taskRepository.findById(1)).thenReturn(Optional.of(task));
+        when(taskQueryRepository.findAll(eq(userId), eq(filter), any())).thenReturn(List.of(task));
 
-        Task result = taskService.getTaskById(1, userId);
+        List<TaskResponse> result = taskService.getTasksForUser(userId, filter);
 
-        assertNotNull(result);
-        assertEquals("Task 1", result.getTitle());
+        assertEquals(List.of(task), result);
     }
 
     @Test
-    void getTaskById_whenUserDoesNotOwnTask_throwsException() {
+    void getTasksForUser_whenDueWindowIsInverted_throwsException() {
+
+        LocalDateTime now = LocalDateTime.now();
+        TaskFilter filter = new TaskFilter(null, null, now, now.minusDays(1), null, null);
+
+        assertThrows(ValidationException.class, () -> taskService.getTasksForUser(1L, filter));
+        verifyNoInteractions(taskQueryRepository);
+    }
+
+    @Test
+    void getTaskPage_whenMoreTasksExist_returnsCursorForLastTask() {
 
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
-        user.setUserName("test@test.com");
+        LocalDateTime dueDate = LocalDateTime.of(2030, 1, 1, 9, 0);
+        TaskResponse task1 = taskResponse(1, userId, dueDate);
+        TaskResponse task2 = taskResponse(2, userId, dueDate);
+        TaskResponse task3 = taskResponse(3, userId, dueDate.plusDays(1));
 
-        User otherUser = new User();
-        otherUser.setId(2L);
-        otherUser.setUserName("other@test.com");
+        when(taskQueryRepository.findDatedPage(eq(userId), eq(TaskFilter.none()), any(), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(task1, task2, task3));
 
-        Task task = new Task(1, "Task 1", "Description", Status.PENDING, Priority.LOW,
-                LocalDateTime.now().plusDays(1));
-        task.setUser(otherUser); // Different user owns this task
+        TaskPage page = taskService.getTaskPage(userId, TaskFilter.none(), null, 2);
+
+        assertEquals(List.of(task1, task2), page.items());
+        assertEquals(new TaskCursor(dueDate, 2L), TaskCursor.decode(page.nextCursor()));
+        verify(taskQueryRepository, never()).findUndatedPage(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getTaskPage_whenDatedTasksRunOut_continuesWithUndatedTasks() {
+
+        Long userId = 1L;
+        LocalDateTime dueDate = LocalDateTime.of(2030, 1, 1, 9, 0);
+        String cursor = new TaskCursor(dueDate, 2L).encode();
+        TaskResponse datedTask = taskResponse(3, userId, dueDate.plusDays(1));
+        TaskResponse undatedTask = taskResponse(7, userId, null);
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
-        when(taskRepository.findById(1)).thenReturn(Optional.of(task));
+        when(taskQueryRepository.findDatedPage(eq(userId), eq(TaskFilter.none()), any(), eq(dueDate), eq(2L), eq(3)))
+                .thenReturn(List.of(datedTask));
+        when(taskQueryRepository.findUndatedPage(eq(userId), eq(TaskFilter.none()), any(), eq(0L), eq(2)))
+                .thenReturn(List.of(undatedTask));
+
+        TaskPage page = taskService.getTaskPage(userId, TaskFilter.none(), cursor, 2);
+
+        assertEquals(List.of(datedTask, undatedTask), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getTaskPage_whenCursorIsInUndatedSection_skipsDatedTasks() {
+
+        Long userId = 1L;
+        String cursor = new TaskCursor(null, 7L).encode();
+        TaskResponse undatedTask = taskResponse(9, userId, null);
+
+        when(taskQueryRepository.findUndatedPage(eq(userId), eq(TaskFilter.none()), any(), eq(7L), eq(3)))
+                .thenReturn(List.of(undatedTask));
+
+        TaskPage page = taskService.getTaskPage(userId, TaskFilter.none(), cursor, 2);
+
+        assertEquals(List.of(undatedTask), page.items());
+        assertNull(page.nextCursor());
+        verify(taskQueryRepository, never()).findDatedPage(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getTaskPage_whenLimitIsOutOfRange_throwsException() {
+
+        assertThrows(ValidationException.class, () -> taskService.getTaskPage(1L, TaskFilter.none(), null, 0));
+        assertThrows(ValidationException.class,
+                () -> taskService.getTaskPage(1L, TaskFilter.none(), null, TaskService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(taskQueryRepository);
+    }
+
+    @Test
+    void getTaskPage_whenSortIsNotKeysetOrder_throwsException() {
+
+        TaskFilter filter = new TaskFilter(null, null, null, null, null, TaskFilter.SortOrder.CREATED_DATE_DESC);
+
+        assertThrows(ValidationException.class, () -> taskService.getTaskPage(1L, filter, null, 10));
+        verifyNoInteractions(taskQueryRepository);
+    }
+
+    @Test
+    void getTaskPage_whenCursorIsMalformed_throwsException() {
+
+        assertThrows(ValidationException.class, () -> taskService.getTaskPage(1L, TaskFilter.none(), "not-a-cursor", 10));
+        verifyNoInteractions(taskQueryRepository);
+    }
+
+    @Test
+    void streamTasksForUser_passesEachTaskToConsumerAndClosesStream() {
+
+        Long userId = 1L;
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<TaskResponse> rows = Stream.of(
+                taskResponse(1, userId, null),
+                taskResponse(2, userId, null)).onClose(() -> closed.set(true));
+
+        when(taskQueryRepository.streamAll(eq(userId), eq(TaskFilter.none()), any())).thenReturn(rows);
+
+        List<TaskResponse> received = new ArrayList<>();
+        taskService.streamTasksForUser(userId, TaskFilter.none(), received::add);
+
+        assertEquals(List.of(1L, 2L), received.stream().map(TaskResponse::id).toList());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void streamTasksForUser_whenDueRangeIsEmpty_throwsBeforeQuerying() {
+
+        TaskFilter filter = new TaskFilter(null, null, LocalDateTime.of(2030, 2, 1, 0, 0),
+                LocalDateTime.of(2030, 1, 1, 0, 0), null, null);
+
+        assertThrows(ValidationException.class, () -> taskService.streamTasksForUser(1L, filter, task -> { }));
+        verifyNoInteractions(taskQueryRepository);
+    }
+
+    @Test
+    void getTaskById_whenTaskExistsAndUserOwnsIt_returnsTask() {
+
+        Long userId = 1L;
+        TaskResponse task = taskResponse(1, userId, LocalDateTime.now().plusDays(1));
+
+        when(taskQueryRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(task));
+
+        TaskResponse result = taskService.getTaskById(1L, userId);
+
+        assertNotNull(result);
+        assertEquals("Task 1", result.title());
+        verify(taskRepository, never()).existsById(any());
+        verifyNoInteractions(userLookupService);
+    }
+
+    @Test
+    void getTaskById_whenUserDoesNotOwnTask_throwsException() {
+
+        Long userId = 1L;
+
+        when(taskQueryRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(1L)).thenReturn(true); // Different user owns this task
 
         assertThrows(ForbiddenException.class, () -> {
-            taskService.getTaskById(1, userId);
+            taskService.getTaskById(1L, userId);
         });
     }
 
@@ -122,15 +303,12 @@ public class TaskServiceTest {
     void getTaskById_whenTaskDoesNotExist_throwsException() {
 
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
-        user.setUserName("test@test.com");
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
-        when(taskRepository.findById(1)).thenReturn(Optional.empty());
+        when(taskQueryRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(TaskNotFoundException.class, () -> {
-            taskService.getTaskById(1, userId);
+            taskService.getTaskById(1L, userId);
         });
     }
 
@@ -144,18 +322,22 @@ public class TaskServiceTest {
 
         Task newTask = new Task(null, "New Task", "Description", Status.PENDING, Priority.MEDIUM,
                 LocalDateTime.now().plusDays(1));
-        Task savedTask = new Task(1, "New Task", "Description", Status.PENDING, Priority.MEDIUM,
+        Task savedTask = new Task(1L, "New Task", "Description", Status.PENDING, Priority.MEDIUM,
                 LocalDateTime.now().plusDays(1));
         savedTask.setUser(user);
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
+        when(userLookupService.getUserReference(userId)).thenReturn(user);
         when(taskRepository.save(any(Task.class))).thenReturn(savedTask);
 
-        Task result = taskService.createTask(newTask, userId);
+        TaskResponse result = taskService.createTask(newTask, userId);
 
         assertNotNull(result);
-        assertEquals(1, result.getId());
-        assertEquals("New Task", result.getTitle());
+        assertEquals(1, result.id());
+        assertEquals(userId, result.userId());
+        assertEquals("New Task", result.title());
+        verify(userLookupService, never()).getUserById(any());
+        verify(taskListVersions).bump(userId);
+        verify(eventPublisher).publishEvent(TaskEvent.created(result));
     }
 
     @Test
@@ -166,105 +348,337 @@ public class TaskServiceTest {
         user.setId(userId);
         user.setUserName("test@test.com");
 
-        Task existingTask = new Task(1, "Old Title", "Old Description", Status.PENDING, Priority.LOW,
+        Task existingTask = new Task(1L, "Old Title", "Old Description", Status.PENDING, Priority.LOW,
                 LocalDateTime.now().plusDays(1));
         existingTask.setUser(user);
 
-        Task updatedTaskDetails = new Task(1, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH,
+        Task updatedTaskDetails = new Task(1L, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH,
                 LocalDateTime.now().plusDays(2));
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
-        when(taskRepository.findById(1)).thenReturn(Optional.of(existingTask));
-        when(taskRepository.save(existingTask)).thenReturn(existingTask);
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(existingTask));
+        when(taskRepository.saveAndFlush(existingTask)).thenReturn(existingTask);
 
-        Task result = taskService.updateTask(1, updatedTaskDetails, userId);
+        TaskResponse result = taskService.updateTask(1L, updatedTaskDetails, userId, null);
 
         assertNotNull(result);
-        assertEquals("New Title", result.getTitle());
-        assertEquals("New Description", result.getDescription());
-        assertEquals(Status.IN_PROGRESS, result.getStatus());
-        assertEquals(Priority.HIGH, result.getPriority());
+        assertEquals("New Title", result.title());
+        assertEquals("New Description", result.description());
+        assertEquals(Status.IN_PROGRESS, result.status());
+        assertEquals(Priority.HIGH, result.priority());
+        verifyNoInteractions(userLookupService);
+        verify(taskListVersions).bump(userId);
     }
 
     @Test
-    void updateTask_whenTaskDoesNotExist_throwsException() {
+    void updateTask_whenDueDateChanges_resetsReminder() {
 
         Long userId = 1L;
         User user = new User();
         user.setId(userId);
-        user.setUserName("test@test.com");
 
-        Task updatedTaskDetails = new Task(1, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH,
-                LocalDateTime.now().plusDays(2));
+        Task existingTask = new Task(1L, "Title", "Description", Status.PENDING, Priority.LOW,
+                LocalDateTime.now().plusDays(1));
+        existingTask.setUser(user);
+        existingTask.setReminderSentAt(LocalDateTime.now());
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
-        when(taskRepository.findById(1)).thenReturn(Optional.empty());
+        Task updatedTaskDetails = new Task(1L, "Title", "Description", Status.PENDING, Priority.LOW,
+                LocalDateTime.now().plusDays(3));
 
-        assertThrows(TaskNotFoundException.class, () -> {
-            taskService.updateTask(1, updatedTaskDetails, userId);
-        });
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(existingTask));
+        when(taskRepository.saveAndFlush(existingTask)).thenReturn(existingTask);
+
+        taskService.updateTask(1L, updatedTaskDetails, userId, null);
+
+        assertNull(existingTask.getReminderSentAt());
+    }
+
+    private static TaskPatchRequest patch(Status status) {
+        TaskPatchRequest patch = new TaskPatchRequest();
+        patch.setStatus(status);
+        return patch;
     }
 
     @Test
-    void updateTask_whenUserDoesNotOwnTask_throwsException() {
+    void patchTask_whenOnlyStatusIsSent_changesJustStatus() {
 
         Long userId = 1L;
         User user = new User();
         user.setId(userId);
-        user.setUserName("test@test.com");
 
-        User otherUser = new User();
-        otherUser.setId(2L);
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(1);
+        LocalDateTime sentAt = LocalDateTime.now().minusHours(1);
+        Task existingTask = new Task(1L, "Title", "Description", Status.IN_PROGRESS, Priority.HIGH, dueDate);
+        existingTask.setUser(user);
+        existingTask.setReminderSentAt(sentAt);
 
-        Task existingTask = new Task(1, "Old Title", "Old Description", Status.PENDING, Priority.LOW,
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(existingTask));
+        when(taskRepository.saveAndFlush(existingTask)).thenReturn(existingTask);
+
+        TaskResponse result = taskService.patchTask(1L, patch(Status.COMPLETED), userId, null);
+
+        assertEquals(Status.COMPLETED, result.status());
+        assertEquals("Title", result.title());
+        assertEquals("Description", result.description());
+        assertEquals(Priority.HIGH, result.priority());
+        assertEquals(dueDate, result.dueDate());
+        assertEquals(sentAt, result.reminderSentAt());
+        verify(taskListVersions).bump(userId);
+    }
+
+    @Test
+    void patchTask_whenDueDateIsCleared_resetsReminder() {
+
+        Long userId = 1L;
+        User user = new User();
+        user.setId(userId);
+
+        Task existingTask = new Task(1L, "Title", "Description", Status.PENDING, Priority.LOW,
                 LocalDateTime.now().plusDays(1));
-        existingTask.setUser(otherUser); // Different user owns this
+        existingTask.setUser(user);
+        existingTask.setReminderSentAt(LocalDateTime.now());
 
-        Task updatedTaskDetails = new Task(1, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH,
-                LocalDateTime.now().plusDays(2));
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(existingTask));
+        when(taskRepository.saveAndFlush(existingTask)).thenReturn(existingTask);
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
-        when(taskRepository.findById(1)).thenReturn(Optional.of(existingTask));
+        TaskPatchRequest patch = new TaskPatchRequest();
+        patch.setDueDate(null);
+        TaskResponse result = taskService.patchTask(1L, patch, userId, null);
 
-        assertThrows(ForbiddenException.class, () -> {
-            taskService.updateTask(1, updatedTaskDetails, userId);
-        });
+        assertNull(result.dueDate());
+        assertNull(result.reminderSentAt());
     }
 
     @Test
-    void deleteTask_whenTaskExistsAndUserOwnsIt_deletesTask() {
+    void patchTask_whenCompletedTaskIsReopened_resetsReminder() {
 
         Long userId = 1L;
         User user = new User();
         user.setId(userId);
-        user.setUserName("test@test.com");
 
-        Task task = new Task(1, "Task", "Description", Status.PENDING, Priority.LOW,
+        Task existingTask = new Task(1L, "Title", "Description", Status.COMPLETED, Priority.LOW,
                 LocalDateTime.now().plusDays(1));
-        task.setUser(user);
+        existingTask.setUser(user);
+        existingTask.setReminderSentAt(LocalDateTime.now());
+
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(existingTask));
+        when(taskRepository.saveAndFlush(existingTask)).thenReturn(existingTask);
+
+        TaskResponse result = taskService.patchTask(1L, patch(Status.PENDING), userId, null);
+
+        assertNull(result.reminderSentAt());
+    }
+
+    @Test
+    void patchTask_whenNothingIsSent_throwsException() {
+
+        assertThrows(ValidationException.class, () -> taskService.patchTask(1L, new TaskPatchRequest(), 1L, null));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void patchTask_whenUserDoesNotOwnTask_throwsException() {
+
+        Long userId = 1L;
+
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(ForbiddenException.class, () -> taskService.patchTask(1L, patch(Status.COMPLETED), userId, null));
+        verify(taskRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void updateTask_whenTaskDoesNotExist_throwsException() {
+
+        Long userId = 1L;
+
+        Task updatedTaskDetails = new Task(1L, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH,
+                LocalDateTime.now().plusDays(2));
+
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(TaskNotFoundException.class, () -> {
+            taskService.updateTask(1L, updatedTaskDetails, userId, null);
+        });
+    }
+
+    @Test
+    void updateTask_whenUserDoesNotOwnTask_throwsException() {
+
+        Long userId = 1L;
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
-        when(taskRepository.findById(1)).thenReturn(Optional.of(task));
-        doNothing().when(taskRepository).delete(task);
+        Task updatedTaskDetails = new Task(1L, "New Title", "New Description", Status.IN_PROGRESS, Priority.HIGH,
+                LocalDateTime.now().plusDays(2));
 
-        taskService.deleteTask(1, userId);
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(1L)).thenReturn(true); // Different user owns this
 
-        verify(taskRepository).delete(task);
+        assertThrows(ForbiddenException.class, () -> {
+            taskService.updateTask(1L, updatedTaskDetails, userId, null);
+        });
+        verify(taskRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(taskListVersions);
+    }
+
+    @Test
+    void deleteTask_whenTaskExistsAndUserOwnsIt_deletesTask() {
+
+        Long userId = 1L;
+
+        when(taskQueryRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(taskResponse(1, userId, null)));
+        when(taskRepository.deleteByIdAndUserIdAndVersion(1L, userId, 0L)).thenReturn(1);
+
+        taskService.deleteTask(1L, userId, null);
+
+        verify(taskRepository).deleteByIdAndUserIdAndVersion(1L, userId, 0L);
+        verify(taskRepository, never()).existsById(any());
+        verify(taskListVersions).bump(userId);
+        verify(eventPublisher).publishEvent(TaskEvent.deleted(userId, 1L));
     }
 
     @Test
     void deleteTask_whenTaskDoesNotExist_throwsException() {
 
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
-        user.setUserName("test@test.com");
 
-        when(userLookupService.getUserById(userId)).thenReturn(user);
-        when(taskRepository.findById(1)).thenReturn(Optional.empty());
+        when(taskQueryRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(TaskNotFoundException.class, () -> {
-            taskService.deleteTask(1, userId);
+            taskService.deleteTask(1L, userId, null);
+        });
+    }
+
+    @Test
+    void deleteTask_whenUserDoesNotOwnTask_throwsException() {
+
+        Long userId = 1L;
+
+        when(taskQueryRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(ForbiddenException.class, () -> {
+            taskService.deleteTask(1L, userId, null);
         });
+        verify(taskRepository, never()).deleteByIdAndUserIdAndVersion(any(), any(), any());
+        verifyNoInteractions(taskListVersions);
+    }
+
+    @Test
+    void updateTask_whenExpectedVersionIsStale_throwsException() {
+
+        Long userId = 1L;
+        Task existingTask = new Task(1L, "Old Title", "Old Description", Status.PENDING, Priority.LOW, null);
+        ReflectionTestUtils.setField(existingTask, "version", 3L);
+        Task updatedTaskDetails = new Task(1L, "New Title", "New Description", Status.PENDING, Priority.LOW, null);
+
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(existingTask));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.updateTask(1L, updatedTaskDetails, userId, 2L));
+        assertEquals("Old Title", existingTask.getTitle());
+        verify(taskRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(taskListVersions);
+    }
+
+    @Test
+    void patchTask_whenExpectedVersionMatches_appliesPatch() {
+
+        Long userId = 1L;
+        Task existingTask = new Task(1L, "Title", "Description", Status.PENDING, Priority.LOW, null);
+        ReflectionTestUtils.setField(existingTask, "version", 3L);
+        User user = new User();
+        user.setId(userId);
+        existingTask.setUser(user);
+
+        when(taskRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(existingTask));
+        when(taskRepository.saveAndFlush(existingTask)).thenReturn(existingTask);
+
+        TaskResponse result = taskService.patchTask(1L, patch(Status.COMPLETED), userId, 3L);
+
+        assertEquals(Status.COMPLETED, result.status());
+        verify(taskListVersions).bump(userId);
+    }
+
+    @Test
+    void deleteTask_whenExpectedVersionMatches_deletesTaskAndItsCounts() {
+
+        Long userId = 1L;
+        TaskResponse existing = new TaskResponse(1L, userId, "Task", "Description", Status.IN_PROGRESS, Priority.HIGH,
+                null, LocalDateTime.now(), null, 3L);
+
+        when(taskQueryRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(existing));
+        when(taskRepository.deleteByIdAndUserIdAndVersion(1L, userId, 3L)).thenReturn(1);
+
+        taskService.deleteTask(1L, userId, 3L);
+
+        ArgumentCaptor<TaskCounterDelta> delta = ArgumentCaptor.forClass(TaskCounterDelta.class);
+        verify(taskSummaryService).record(eq(userId), delta.capture());
+        assertEquals(Map.of(Status.IN_PROGRESS, -1), delta.getValue().statusChanges());
+        assertEquals(Map.of(Priority.HIGH, -1), delta.getValue().priorityChanges());
+        verify(taskListVersions).bump(userId);
+    }
+
+    @Test
+    void deleteTask_whenExpectedVersionIsStale_throwsException() {
+
+        Long userId = 1L;
+
+        when(taskQueryRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(taskResponse(1, userId, null)));
+
+        assertThrows(PreconditionFailedException.class, () -> taskService.deleteTask(1L, userId, 2L));
+        verify(taskRepository, never()).deleteByIdAndUserIdAndVersion(any(), any(), any());
+        verifyNoInteractions(taskListVersions);
+    }
+
+    @Test
+    void deleteTask_whenRowChangedAfterRead_throwsException() {
+
+        Long userId = 1L;
+
+        when(taskQueryRepository.findByIdAndUserId(1L, userId)).thenReturn(Optional.of(taskResponse(1, userId, null)));
+        when(taskRepository.deleteByIdAndUserIdAndVersion(1L, userId, 0L)).thenReturn(0);
+
+        assertThrows(PreconditionFailedException.class, () -> taskService.deleteTask(1L, userId, null));
+        verifyNoInteractions(taskSummaryService, taskListVersions);
+    }
+
+    @Test
+    void searchTasks_whenMoreMatchesExist_returnsNextOffset() {
+
+        Long userId = 1L;
+        TaskResponse task1 = taskResponse(4, userId, null);
+        TaskResponse task2 = taskResponse(2, userId, null);
+        TaskResponse task3 = taskResponse(9, userId, null);
+
+        when(taskSearchIndex.search(userId, List.of("invoice", "march"), 10, 3))
+                .thenReturn(List.of(task1, task2, task3));
+
+        TaskSearchPage page = taskService.searchTasks(userId, "Invoice, March invoice", 10, 2);
+
+        assertEquals(List.of(task1, task2), page.items());
+        assertEquals(12, page.nextOffset());
+    }
+
+    @Test
+    void searchTasks_whenQueryHasNoSearchableWords_throwsException() {
+
+        assertThrows(ValidationException.class, () -> taskService.searchTasks(1L, "a b ?", 0, 20));
+        assertThrows(ValidationException.class, () -> taskService.searchTasks(1L, null, 0, 20));
+        assertThrows(ValidationException.class, () -> taskService.searchTasks(1L, "invoice", -1, 20));
+        verifyNoInteractions(taskSearchIndex);
+    }
+
+    @Test
+    void deleteTask_removesTaskFromSearchIndex() {
+
+        when(taskQueryRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(taskResponse(1, 1L, null)));
+        when(taskRepository.deleteByIdAndUserIdAndVersion(1L, 1L, 0L)).thenReturn(1);
+
+        taskService.deleteTask(1L, 1L, null);
+
+        verify(taskSearchIndex).remove(List.of(1L));
+        verify(taskSyncService).recordDeleted(1L, List.of(1L));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.model.Task.Priority;
+import com.conor.taskmanager.model.Task.Status;
+import com.conor.taskmanager.model.TaskSummary;
+import com.conor.taskmanager.repository.TaskCounterRepository;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TaskSummaryServiceTest {
+
+    @Mock
+    private TaskCounterRepository taskCounterRepository;
+
+    @Mock
+    private TaskQueryRepository taskQueryRepository;
+
+    private TaskSummaryService taskSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        taskSummaryService = new TaskSummaryService(taskCounterRepository, taskQueryRepository);
+    }
+
+    @Test
+    void getSummary_combinesCountersWithDueCounts() {
+        when(taskCounterRepository.findCounts(1L)).thenReturn(new TaskCounterRepository.Counts(
+                Map.of(Status.PENDING, 3L, Status.IN_PROGRESS, 1L, Status.COMPLETED, -1L),
+                Map.of(Priority.LOW, 2L, Priority.MEDIUM, 1L, Priority.HIGH, 1L)));
+        when(taskQueryRepository.countOpenDue(eq(1L), any(), any(), any()))
+                .thenReturn(new TaskQueryRepository.DueCounts(2, 1));
+
+        TaskSummary summary = taskSummaryService.getSummary(1L);
+
+        assertEquals(4, summary.total());
+        assertEquals(0L, summary.byStatus().get(Status.COMPLETED));
+        assertEquals(2L, summary.byPriority().get(Priority.LOW));
+        assertEquals(2, summary.overdue());
+        assertEquals(1, summary.dueToday());
+    }
+
+    @Test
+    void record_whenChangesCancelOut_skipsWrite() {
+        taskSummaryService.record(1L, new TaskCounterDelta().change(Status.PENDING, Priority.LOW,
+                Status.PENDING, Priority.LOW));
+
+        verifyNoInteractions(taskCounterRepository);
+    }
+
+    @Test
+    void record_writesNetChanges() {
+        taskSummaryService.record(1L, new TaskCounterDelta().change(Status.PENDING, Priority.LOW,
+                Status.COMPLETED, Priority.LOW));
+
+        verify(taskCounterRepository).addCounts(1L, Map.of(Status.PENDING, -1, Status.COMPLETED, 1), Map.of());
+    }
+
+    @Test
+    void rebuildCounters_recountsEveryUser() {
+        when(taskCounterRepository.findUserIds()).thenReturn(List.of(1L, 2L));
+
+        taskSummaryService.rebuildCounters();
+
+        verify(taskCounterRepository).rebuild(1L);
+        verify(taskCounterRepository).rebuild(2L);
+    }
+}
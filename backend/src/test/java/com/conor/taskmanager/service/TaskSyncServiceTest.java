@@ -0,0 +1,96 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.exception.SyncTokenExpiredException;
+import com.conor.taskmanager.exception.ValidationException;
+import com.conor.taskmanager.model.Task.Priority;
+import com.conor.taskmanager.model.Task.Status;
+import com.conor.taskmanager.model.TaskChanges;
+import com.conor.taskmanager.model.TaskFilter;
+import com.conor.taskmanager.model.TaskResponse;
+import com.conor.taskmanager.repository.TaskQueryRepository;
+import com.conor.taskmanager.repository.TaskTombstoneRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TaskSyncServiceTest {
+
+    @Mock
+    private TaskQueryRepository taskQueryRepository;
+
+    @Mock
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    private TaskSyncService taskSyncService;
+
+    @BeforeEach
+    void setUp() {
+        taskSyncService = new TaskSyncService(taskQueryRepository, taskTombstoneRepository, 30);
+    }
+
+    private static TaskResponse task(long id) {
+        return new TaskResponse(id, 1L, "Task " + id, "Description", Status.PENDING, Priority.LOW, null,
+                LocalDateTime.now(), null, 0L);
+    }
+
+    @Test
+    void getChanges_withoutToken_returnsEveryTask() {
+        when(taskQueryRepository.findAll(eq(1L), eq(TaskFilter.none()), any())).thenReturn(List.of(task(1), task(2)));
+
+        TaskChanges changes = taskSyncService.getChanges(1L, null);
+
+        assertEquals(2, changes.changed().size());
+        assertTrue(changes.deleted().isEmpty());
+        assertNotNull(changes.nextToken());
+        verifyNoInteractions(taskTombstoneRepository);
+    }
+
+    @Test
+    void getChanges_withToken_returnsChangedAndDeletedSinceIt() {
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+        when(taskQueryRepository.findChangedSince(1L, since)).thenReturn(List.of(task(3)));
+        when(taskTombstoneRepository.findDeletedSince(1L, since)).thenReturn(List.of(4L));
+
+        TaskChanges changes = taskSyncService.getChanges(1L, new TaskSyncToken(since).encode());
+
+        assertEquals(List.of(task(3).id()), changes.changed().stream().map(TaskResponse::id).toList());
+        assertEquals(List.of(4L), changes.deleted());
+        LocalDateTime next = TaskSyncToken.decode(changes.nextToken()).since();
+        assertTrue(next.isAfter(since));
+        assertTrue(next.isBefore(LocalDateTime.now().minus(TaskSyncService.COMMIT_GRACE).plusSeconds(1)));
+    }
+
+    @Test
+    void getChanges_whenSyncingAgainWithinGrace_keepsToken() {
+        LocalDateTime since = LocalDateTime.now().minusSeconds(5);
+
+        TaskChanges changes = taskSyncService.getChanges(1L, new TaskSyncToken(since).encode());
+
+        assertEquals(since, TaskSyncToken.decode(changes.nextToken()).since());
+    }
+
+    @Test
+    void getChanges_whenTokenIsOlderThanRetention_throwsException() {
+        String token = new TaskSyncToken(LocalDateTime.now().minusDays(31)).encode();
+
+        assertThrows(SyncTokenExpiredException.class, () -> taskSyncService.getChanges(1L, token));
+        verifyNoInteractions(taskQueryRepository, taskTombstoneRepository);
+    }
+
+    @Test
+    void getChanges_whenTokenIsMalformed_throwsException() {
+        assertThrows(ValidationException.class, () -> taskSyncService.getChanges(1L, "not a token"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.conor.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.conor.taskmanager.repository.UserRepository;
+import com.conor.taskmanager.security.TokenVersionCache;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenVersionCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final AtomicLong clock = new AtomicLong();
+    private TokenVersionCache tokenVersionCache;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionCache = new TokenVersionCache(userRepository, 2, Duration.ofSeconds(60), clock::get);
+    }
+
+    @Test
+    void isCurrent_readsEachUserOnceWithinTtl() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(3L));
+
+        assertTrue(tokenVersionCache.isCurrent(1L, 3L));
+        assertFalse(tokenVersionCache.isCurrent(1L, 2L));
+        assertTrue(tokenVersionCache.isCurrent(1L, 3L));
+
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void isCurrent_afterTtl_rereadsVersion() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L), Optional.of(1L));
+        assertTrue(tokenVersionCache.isCurrent(1L, 0L));
+
+        clock.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        // Another instance changed the password in the meantime
+        assertFalse(tokenVersionCache.isCurrent(1L, 0L));
+        verify(userRepository, times(2)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void isCurrent_whenUserDoesNotExist_isFalse() {
+        when(userRepository.findTokenVersionById(9L)).thenReturn(Optional.empty());
+
+        assertFalse(tokenVersionCache.isCurrent(9L, 0L));
+    }
+
+    @Test
+    void update_rejectsOlderTokensWithoutReadingDatabase() {
+        tokenVersionCache.update(1L, 4L);
+
+        assertFalse(tokenVersionCache.isCurrent(1L, 3L));
+        assertTrue(tokenVersionCache.isCurrent(1L, 4L));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void update_neverMovesVersionBackwards() {
+        tokenVersionCache.update(1L, 4L);
+        tokenVersionCache.update(1L, 3L);
+
+        assertTrue(tokenVersionCache.isCurrent(1L, 4L));
+    }
+
+    @Test
+    void isCurrent_pastCapacity_dropsEntriesAndRereadsThem() {
+        // Each user's version is their id
+        when(userRepository.findTokenVersionById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(invocation.<Long>getArgument(0)));
+
+        for (int round = 0; round < 2; round++) {
+            for (long userId = 1; userId <= 10; userId++) {
+                assertTrue(tokenVersionCache.isCurrent(userId, userId));
+            }
+        }
+
+        verify(userRepository, atLeast(11)).findTokenVersionById(anyLong());
+    }
+
+    @Test
+    void isCurrent_fromManyThreadsPastCapacity_answersEachUsersVersion() throws Exception {
+        TokenVersionCache cache = new TokenVersionCache(userRepository, 50, Duration.ofSeconds(60), System::nanoTime);
+        when(userRepository.findTokenVersionById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(invocation.<Long>getArgument(0)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        for (long userId = 0; userId < 200; userId++) {
+                            if (!cache.isCurrent(userId, userId) || cache.isCurrent(userId, userId + 1)) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
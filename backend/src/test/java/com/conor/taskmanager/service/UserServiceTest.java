@@ -1,14 +1,18 @@
 package com.conor.taskmanager.service;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import io.jsonwebtoken.ExpiredJwtException;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,6 +34,9 @@ import com.conor.taskmanager.model.RegisterRequest;
 import com.conor.taskmanager.model.User;
 import com.conor.taskmanager.repository.UserRepository;
 import com.conor.taskmanager.security.JwtService;
+import com.conor.taskmanager.security.RevokedTokens;
+import com.conor.taskmanager.security.TokenVersionCache;
+import com.conor.taskmanager.security.VerifiedToken;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
@@ -49,11 +56,21 @@ class UserServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private TokenVersionCache tokenVersionCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private RevokedTokens revokedTokens;
+
     private UserService userService;
 
     @BeforeEach
     void setUp() {
-        userService = new UserService(userRepository, userLookupService, passwordEncoder, authManager, jwtService);
+        userService = new UserService(userRepository, userLookupService, passwordEncoder, authManager, jwtService,
+                tokenVersionCache, refreshTokenService, revokedTokens);
     }
 
     @Test
@@ -73,7 +90,7 @@ class UserServiceTest {
         when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
         when(passwordEncoder.encode("plainPassword")).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
-        when(jwtService.generateToken(1L, "testUser")).thenReturn("mockedToken");
+        when(jwtService.generateToken(1L, "testUser", "user", 0L)).thenReturn("mockedToken");
 
         LoginResponse response = userService.registerUser(request);
 
@@ -94,7 +111,7 @@ class UserServiceTest {
 
         verify(userRepository, never()).save(any(User.class));
         verify(passwordEncoder, never()).encode(any());
-        verify(jwtService, never()).generateToken(any(), any());
+        verify(jwtService, never()).generateToken(any(), any(), any(), anyLong());
     }
 
     @Test
@@ -119,7 +136,7 @@ class UserServiceTest {
 
         verify(userRepository, never()).save(any(User.class));
         verify(passwordEncoder, never()).encode(any());
-        verify(jwtService, never()).generateToken(any(), any());
+        verify(jwtService, never()).generateToken(any(), any(), any(), anyLong());
     }
 
     @Test
@@ -142,7 +159,7 @@ class UserServiceTest {
                     u.setId(1L);
                     return u;
                 });
-        when(jwtService.generateToken(eq(1L), eq("testUser"))).thenReturn("mockedToken");
+        when(jwtService.generateToken(eq(1L), eq("testUser"), eq("user"), eq(0L))).thenReturn("mockedToken");
 
         LoginResponse response = userService.registerUser(request);
 
@@ -166,12 +183,14 @@ class UserServiceTest {
         // Use findByUserNameOrEmail instead of findByUserName
         when(userRepository.findByUserNameOrEmail("username")).thenReturn(Optional.of(user));
         when(authManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(null);
-        when(jwtService.generateToken(1L, "username")).thenReturn("mockJwtToken");
+        when(jwtService.generateToken(1L, "username", "user", 0L)).thenReturn("mockJwtToken");
+        when(refreshTokenService.issue(1L)).thenReturn("mockRefreshToken");
 
         LoginResponse response = userService.login(loginRequest);
 
         assertEquals("username", response.getUserName());
         assertEquals("mockJwtToken", response.getJwtToken());
+        assertEquals("mockRefreshToken", response.getRefreshToken());
     }
 
     @Test
@@ -213,10 +232,19 @@ class UserServiceTest {
         when(passwordEncoder.matches("oldPassword", "encodedOldPassword")).thenReturn(true);
         when(passwordEncoder.encode("newPassword123")).thenReturn("encodedNewPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
+        when(jwtService.generateToken(1L, "testUser", "user", 1L)).thenReturn("newToken");
+        when(refreshTokenService.issue(1L)).thenReturn("newRefreshToken");
 
-        userService.changePassword(1L, request);
+        LoginResponse response = userService.changePassword(1L, request);
+        assertEquals("newToken", response.getJwtToken());
+        assertEquals("newRefreshToken", response.getRefreshToken());
 
         verify(userRepository).save(any(User.class));
+        // Tokens carrying the old version stop working
+        assertEquals(1L, user.getTokenVersion());
+        verify(tokenVersionCache).update(1L, 1L);
+        // So do the sessions' refresh tokens
+        verify(refreshTokenService).revokeAll(1L);
     }
 
     @Test
@@ -257,4 +285,26 @@ class UserServiceTest {
 
         assertThrows(ValidationException.class, () -> userService.changePassword(1L, request));
     }
+
+    @Test
+    void testLogout_RevokesRefreshAndAccessTokens() {
+        VerifiedToken verified = new VerifiedToken(1L, "testUser", "user", 0L, Instant.now(),
+                Instant.now().plusSeconds(3600), "jti");
+        when(jwtService.verify("accessToken")).thenReturn(verified);
+
+        userService.logout("accessToken", "refreshToken");
+
+        verify(refreshTokenService).revoke("refreshToken");
+        verify(revokedTokens).revoke(verified);
+    }
+
+    @Test
+    void testLogout_WithExpiredAccessToken_StillRevokesRefreshToken() {
+        when(jwtService.verify("expired")).thenThrow(new ExpiredJwtException(null, null, "JWT expired"));
+
+        userService.logout("expired", "refreshToken");
+
+        verify(refreshTokenService).revoke("refreshToken");
+        verifyNoInteractions(revokedTokens);
+    }
 }
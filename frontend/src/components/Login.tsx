@@ -49,8 +49,8 @@ function Login(): ReactElement {
         password: password,
       });
 
-      const { jwtToken } = response.data;
-      login(jwtToken);
+      const { jwtToken, refreshToken } = response.data;
+      login(jwtToken, refreshToken);
       setErrorMessage("");
       navigate(redirectTo);
     } catch (error) {
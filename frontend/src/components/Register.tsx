@@ -68,8 +68,8 @@ const Register = (): ReactElement => {
         passwordConfirm: confirmPassword,
       });
 
-      const { jwtToken } = response.data;
-      login(jwtToken);
+      const { jwtToken, refreshToken } = response.data;
+      login(jwtToken, refreshToken);
       navigate("/");
     } catch (error) {
       const fieldLevelErrors = mapApiFieldErrorsToRegisterFields(
@@ -271,11 +271,24 @@ const MyAccount = (): ReactElement => {
     setPasswordFieldErrors(createEmptyPasswordFieldErrors());
 
     try {
-      await api.post("/account/change-password", {
-        currentPassword: passwordForm.currentPassword,
-        newPassword: passwordForm.newPassword,
-        confirmPassword: passwordForm.confirmPassword,
-      });
+      const response = await api.post<{
+        token?: string;
+        refreshToken?: string;
+      }>(
+        "/account/change-password",
+        {
+          currentPassword: passwordForm.currentPassword,
+          newPassword: passwordForm.newPassword,
+          confirmPassword: passwordForm.confirmPassword,
+        },
+      );
+      // The change invalidates the old tokens, so keep the session on the new ones
+      if (response.data.token) {
+        localStorage.setItem("token", response.data.token);
+      }
+      if (response.data.refreshToken) {
+        localStorage.setItem("refreshToken", response.data.refreshToken);
+      }
 
       setPasswordChangeSuccess("Password changed successfully");
       setPasswordForm({
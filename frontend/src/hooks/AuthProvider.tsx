@@ -1,28 +1,74 @@
 import type { ReactElement } from "react";
-import { useCallback, useEffect, useState } from "react";
+import { useCallback, useEffect, useRef, useState } from "react";
 import { useLocation, useNavigate } from "react-router-dom";
-import type { AuthProviderProps, DecodedToken } from "../types/auth";
+import type {
+  AuthProviderProps,
+  DecodedToken,
+  LoginResponse,
+} from "../types/auth";
+import api from "../utils/api";
 import { AuthContext } from "./auth-context";
 
+const REFRESH_MARGIN_MS = 5 * 60 * 1000;
+
 export const AuthProvider = ({ children }: AuthProviderProps): ReactElement => {
   const [loggedInUser, setLoggedInUser] = useState<string | null>(null);
   const [loading, setLoading] = useState(true);
   const navigate = useNavigate();
   const location = useLocation();
+  // One refresh at a time: a token spent twice outside the server's short grace window ends the session
+  const refreshing = useRef(false);
 
   // Memoized logout so it can safely be used in useEffect
   const logout = useCallback(() => {
+    const token = localStorage.getItem("token");
+    const refreshToken = localStorage.getItem("refreshToken");
+    if (refreshToken) {
+      // Ends the session server-side too, access token included; the local logout does not wait for it.
+      // The header is set here because the token is gone from storage by the time the request is sent.
+      api
+        .post(
+          "/auth/logout",
+          { refreshToken },
+          token ? { headers: { Authorization: `Bearer ${token}` } } : undefined,
+        )
+        .catch(() => undefined);
+    }
     localStorage.removeItem("token");
+    localStorage.removeItem("refreshToken");
     setLoggedInUser(null);
   }, []);
 
-  const login = (token: string): void => {
+  const login = useCallback((token: string, refreshToken?: string): void => {
     localStorage.setItem("token", token);
+    if (refreshToken) {
+      localStorage.setItem("refreshToken", refreshToken);
+    }
     const decodedToken = decodeToken(token);
     setLoggedInUser(decodedToken.displayName);
-  };
+  }, []);
 
   useEffect(() => {
+    // Swaps the refresh token for a new pair; each refresh token works only once
+    const refreshSession = async (refreshToken: string): Promise<void> => {
+      if (refreshing.current) {
+        return;
+      }
+      refreshing.current = true;
+      try {
+        const response = await api.post<LoginResponse>("/auth/refresh", {
+          refreshToken,
+        });
+        login(response.data.jwtToken, response.data.refreshToken);
+      } catch (error) {
+        console.error("Session refresh failed:", error);
+        logout();
+        navigate(`/login?then=${encodeURIComponent(location.pathname)}`);
+      } finally {
+        refreshing.current = false;
+      }
+    };
+
     const checkToken = (): void => {
       const token = localStorage.getItem("token");
       if (!token) {
@@ -35,6 +81,13 @@ export const AuthProvider = ({ children }: AuthProviderProps): ReactElement => {
         const decodedToken = decodeToken(token);
         if (decodedToken?.exp) {
           const expiration = decodedToken.exp * 1000;
+          const refreshToken = localStorage.getItem("refreshToken");
+          // Renew a few minutes early so requests never go out with an expired token
+          if (refreshToken && expiration - REFRESH_MARGIN_MS < Date.now()) {
+            setLoggedInUser(decodedToken.displayName);
+            void refreshSession(refreshToken);
+            return;
+          }
           if (expiration < Date.now()) {
             logout();
             navigate(`/login?then=${encodeURIComponent(location.pathname)}`);
@@ -57,7 +110,7 @@ export const AuthProvider = ({ children }: AuthProviderProps): ReactElement => {
     checkToken();
     const intervalId = setInterval(checkToken, 60000);
     return (): void => clearInterval(intervalId);
-  }, [navigate, logout, location.pathname]);
+  }, [navigate, login, logout, location.pathname]);
 
   return (
     <AuthContext.Provider value={{ loggedInUser, login, logout, loading }}>
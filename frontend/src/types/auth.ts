@@ -7,6 +7,7 @@ export interface LoginRequest {
 
 export interface LoginResponse {
   jwtToken: string;
+  refreshToken: string;
 }
 
 export interface RegisterRequest {
@@ -27,7 +28,7 @@ export interface ApiError {
 
 export interface AuthContextType {
   loggedInUser: string | null;
-  login: (token: string) => void;
+  login: (token: string, refreshToken?: string) => void;
   logout: () => void;
   loading: boolean;
 }